@@ -0,0 +1,66 @@
+package com.barberia.benchmark;
+
+import com.barberia.service.AppointmentService;
+import com.barberia.service.SlotOccupancyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * isTimeSlotAvailable con el día ya cargado en el índice (warm) y forzando la recarga
+ * desde la base (cold), sobre días con pocas reservas o con la agenda llena
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AvailabilityBenchmark {
+
+    private AppointmentService appointmentService;
+
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    private LocalDate firstDay;
+
+    private int days;
+
+    @Setup
+    public void setup(SeededContext seeded) {
+        appointmentService = seeded.bean(AppointmentService.class);
+        slotOccupancyIndex = seeded.bean(SlotOccupancyIndex.class);
+        firstDay = seeded.firstDay;
+        days = seeded.days;
+        slotOccupancyIndex.loadRange(firstDay, firstDay.plusDays(days - 1));
+    }
+
+    @Benchmark
+    public boolean isTimeSlotAvailableWarm() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = firstDay.plusDays(random.nextInt(days));
+        LocalTime time = LocalTime.of(9, 0).plusMinutes(30L * random.nextInt(SeededContext.SLOTS_PER_DAY));
+        return appointmentService.isTimeSlotAvailable(date, time, 30);
+    }
+
+    @Benchmark
+    public boolean isTimeSlotAvailableCold() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = firstDay.plusDays(random.nextInt(days));
+        LocalTime time = LocalTime.of(9, 0).plusMinutes(30L * random.nextInt(SeededContext.SLOTS_PER_DAY));
+        slotOccupancyIndex.invalidate(date);
+        return appointmentService.isTimeSlotAvailable(date, time, 30);
+    }
+}
@@ -0,0 +1,76 @@
+package com.barberia.benchmark;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.AppointmentDto;
+import com.barberia.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * createAppointment completo (validaciones, lock del día, claims e inserción). Cada
+ * invocación reserva un horario libre distinto en días hábiles posteriores a los precargados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingBenchmark {
+
+    /**
+     * Días hábiles libres sobre los que se reparten las reservas (20 por día)
+     */
+    private static final int FREE_DAYS = 20_000;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private AppointmentService appointmentService;
+
+    private List<Long> clientIds;
+
+    private List<Long> serviceIds;
+
+    private final List<LocalDate> freeDays = new ArrayList<>();
+
+    @Setup
+    public void setup(SeededContext seeded) {
+        appointmentService = seeded.bean(AppointmentService.class);
+        clientIds = seeded.clientIds;
+        serviceIds = List.of(seeded.serviceIds.get(0));
+
+        Set<DayOfWeek> workingDays = seeded.bean(BarberiaProperties.class).getWorkingDays();
+        for (LocalDate date = seeded.firstDay.plusDays(seeded.days); freeDays.size() < FREE_DAYS; date = date.plusDays(1)) {
+            if (workingDays.contains(date.getDayOfWeek())) {
+                freeDays.add(date);
+            }
+        }
+    }
+
+    @Benchmark
+    public AppointmentDto createAppointment() {
+        long n = sequence.getAndIncrement();
+        int slot = (int) (n % SeededContext.SLOTS_PER_DAY);
+        LocalDate date = freeDays.get((int) (n / SeededContext.SLOTS_PER_DAY % FREE_DAYS));
+        Long clientId = clientIds.get(slot % clientIds.size());
+        return appointmentService.createAppointment(clientId, serviceIds, date,
+            LocalTime.of(9, 0).plusMinutes(30L * slot), null);
+    }
+}
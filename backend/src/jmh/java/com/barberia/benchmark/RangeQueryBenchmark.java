@@ -0,0 +1,51 @@
+package com.barberia.benchmark;
+
+import com.barberia.dto.AppointmentDto;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.repository.AppointmentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findAppointmentsInDateRange sobre un día, un mes y un año
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RangeQueryBenchmark {
+
+    @Param({"1", "31", "365"})
+    public int rangeDays;
+
+    private AppointmentRepository appointmentRepository;
+
+    private LocalDate firstDay;
+
+    @Setup
+    public void setup(SeededContext seeded) {
+        appointmentRepository = seeded.bean(AppointmentRepository.class);
+        firstDay = seeded.firstDay;
+    }
+
+    @Benchmark
+    public List<AppointmentDto> findAppointmentsInDateRange() {
+        return appointmentRepository.findAppointmentsInDateRange(firstDay,
+            firstDay.plusDays(rangeDays - 1), AppointmentStatus.CONFIRMED);
+    }
+}
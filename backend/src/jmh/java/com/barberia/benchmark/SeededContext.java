@@ -0,0 +1,137 @@
+package com.barberia.benchmark;
+
+import com.barberia.BarberiaApplication;
+import com.barberia.dto.AppointmentImportRequest;
+import com.barberia.dto.ImportResultDto;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.Client;
+import com.barberia.model.Service;
+import com.barberia.repository.ClientRepository;
+import com.barberia.repository.ServiceRepository;
+import com.barberia.service.AppointmentImportService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Contexto de Spring con una base H2 en memoria precargada, compartido por todos los
+ * benchmarks de un fork.
+ *
+ * El tamaño se controla con los parámetros de JMH: days (días con reservas a partir de
+ * firstDay), clients y density (sparse: 2 reservas por día, dense: agenda llena), o
+ * bien se parte de un snapshot con el parámetro snapshot.
+ */
+@State(Scope.Benchmark)
+public class SeededContext {
+
+    static final int SLOTS_PER_DAY = 20;
+
+    @Param({"365"})
+    public int days;
+
+    @Param({"500"})
+    public int clients;
+
+    @Param({"sparse", "dense"})
+    public String density;
+
+    /**
+     * Snapshot generado con DatasetGenerator; si se indica, reemplaza a la carga anterior
+     * y days pasa a ser el rango de fechas con reservas confirmadas del snapshot
+     */
+    @Param({""})
+    public String snapshot;
+
+    LocalDate firstDay = LocalDate.of(2030, 1, 7);
+
+    ConfigurableApplicationContext context;
+
+    List<Long> clientIds;
+
+    List<Long> serviceIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BarberiaApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--barberia.dataset.snapshot=" + snapshot,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.barberia=WARN",
+                "--logging.level.org.springframework.security=WARN");
+        if (snapshot.isEmpty()) {
+            seed();
+        } else {
+            describeSnapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void describeSnapshot() {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        firstDay = jdbcTemplate.queryForObject(
+            "SELECT MIN(appointment_date) FROM appointments WHERE status = 'CONFIRMED'", LocalDate.class);
+        LocalDate lastDay = jdbcTemplate.queryForObject(
+            "SELECT MAX(appointment_date) FROM appointments WHERE status = 'CONFIRMED'", LocalDate.class);
+        days = (int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+        clientIds = jdbcTemplate.queryForList("SELECT id FROM clients ORDER BY id", Long.class);
+        // El primero es el más corto, el que usan las reservas de los benchmarks
+        serviceIds = jdbcTemplate.queryForList("SELECT id FROM services ORDER BY duration_minutes, id", Long.class);
+    }
+
+    private void seed() {
+        List<Service> services = bean(ServiceRepository.class).saveAll(List.of(
+            new Service("Corte", "Corte de pelo", new BigDecimal("15.00"), 30, "scissors"),
+            new Service("Barba", "Arreglo de barba", new BigDecimal("10.00"), 15, "razor"),
+            new Service("Corte y barba", "Corte y arreglo de barba", new BigDecimal("22.00"), 45, "star")));
+        serviceIds = services.stream().map(Service::getId).toList();
+
+        List<Client> seededClients = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            seededClients.add(new Client("Cliente", "N" + i, "cliente" + i + "@benchmark.local", "+54911" + (1000000 + i)));
+        }
+        clientIds = bean(ClientRepository.class).saveAll(seededClients).stream().map(Client::getId).toList();
+
+        int perDay = "dense".equals(density) ? SLOTS_PER_DAY - 2 : 2;
+        Random random = new Random(42);
+        List<AppointmentImportRequest> rows = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            int firstSlot = perDay == SLOTS_PER_DAY - 2 ? 0 : random.nextInt(SLOTS_PER_DAY - perDay);
+            for (int j = 0; j < perDay; j++) {
+                Long clientId = clientIds.get((day * perDay + j) % clientIds.size());
+                LocalTime time = LocalTime.of(9, 0).plusMinutes(30L * (firstSlot + j));
+                rows.add(new AppointmentImportRequest(clientId, List.of(serviceIds.get(0)), date, time,
+                    AppointmentStatus.CONFIRMED, null));
+            }
+        }
+        ImportResultDto result = bean(AppointmentImportService.class).importAppointments(rows);
+        if (!result.getFailures().isEmpty()) {
+            throw new IllegalStateException("No se pudieron cargar " + result.getFailures().size() + " reservas");
+        }
+    }
+}
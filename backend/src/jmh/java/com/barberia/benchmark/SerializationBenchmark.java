@@ -0,0 +1,53 @@
+package com.barberia.benchmark;
+
+import com.barberia.dto.AppointmentDto;
+import com.barberia.service.AppointmentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de listas de reservas con el ObjectMapper de la aplicación
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    @Param({"20", "500"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<AppointmentDto> appointments;
+
+    @Setup
+    public void setup(SeededContext seeded) {
+        objectMapper = seeded.bean(ObjectMapper.class);
+        appointments = seeded.bean(AppointmentService.class)
+            .getAppointmentsInDateRangePage(seeded.firstDay, seeded.firstDay.plusDays(seeded.days - 1),
+                null, listSize)
+            .getItems();
+    }
+
+    @Benchmark
+    public byte[] serializeAppointments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(appointments);
+    }
+}
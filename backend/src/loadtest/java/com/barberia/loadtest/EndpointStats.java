@@ -0,0 +1,88 @@
+package com.barberia.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y resultados de un endpoint durante una fase de la prueba.
+ *
+ * La latencia se mide desde el instante en que el pedido debía salir según la tasa
+ * objetivo, no desde que salió, para que la espera por usuarios ocupados también cuente.
+ */
+class EndpointStats {
+
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(5);
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder badRequests = new LongAdder();
+    private final LongAdder otherClientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(long intendedStart, int status) {
+        latencies.recordValue(Math.min(System.nanoTime() - intendedStart, MAX_LATENCY));
+        if (status < 400) {
+            ok.increment();
+        } else if (status == 400) {
+            badRequests.increment();
+        } else if (status < 500) {
+            otherClientErrors.increment();
+        } else {
+            serverErrors.increment();
+        }
+    }
+
+    /**
+     * Pedido que no obtuvo respuesta (conexión rechazada, timeout)
+     */
+    void recordFailure(long intendedStart) {
+        latencies.recordValue(Math.min(System.nanoTime() - intendedStart, MAX_LATENCY));
+        failures.increment();
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", count());
+        summary.put("throughput", round(count() / seconds));
+        summary.put("p50Ms", millis(latencies.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(latencies.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latencies.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latencies.getMaxValue()));
+        summary.put("ok", ok.sum());
+        summary.put("badRequest", badRequests.sum());
+        summary.put("otherClientErrors", otherClientErrors.sum());
+        summary.put("serverErrors", serverErrors.sum());
+        summary.put("failures", failures.sum());
+        summary.put("errorRate", count() == 0 ? 0.0
+            : round((double) (count() - ok.sum()) / count()));
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,455 @@
+package com.barberia.loadtest;
+
+import com.barberia.BarberiaApplication;
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.OccupiedSlot;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.Client;
+import com.barberia.model.Service;
+import com.barberia.repository.AppointmentRepository;
+import com.barberia.repository.ClientRepository;
+import com.barberia.repository.ServiceRepository;
+import com.barberia.service.BookingOutcome;
+import com.barberia.service.BusinessCalendar;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga local contra AppointmentController.
+ *
+ * Levanta la aplicación en un puerto aleatorio (vacía con clientes de prueba, o desde un
+ * snapshot de DatasetGenerator) y ejecuta tres fases:
+ *
+ * 1. Tormenta de reservas: muchos usuarios reservan a la vez el mismo horario; solo una
+ *    reserva por horario puede confirmarse.
+ * 2. Carga mixta a tasa fija (consultas de disponibilidad, listados del día, reservas y
+ *    cancelaciones) con varios usuarios concurrentes, primero un calentamiento que se
+ *    descarta y luego la medición.
+ * 3. Verificación de que no quedaron reservas confirmadas superpuestas.
+ *
+ * Informa por endpoint throughput, p50/p99/p999 y errores, separando los 400 (en las
+ * reservas, horarios ya tomados) del resto, junto con los hilos y la memoria usados
+ * durante la medición, y guarda el resultado en JSON.
+ *
+ * Opciones (--clave=valor): rate (pedidos/s, 200), users (64), duration (60s),
+ * warmup (15s), days (días hábiles de la ventana, 14), clients (2000), storm-slots (20),
+ * snapshot (archivo), threads (platform o virtual, platform), admission (control de
+ * admisión: como toda la carga sale de una IP viene apagado, false),
+ * output (build/reports/loadtest/results.json).
+ */
+public class LoadTest {
+
+    private static final int[] MIX = {55, 20, 20, 5}; // disponibilidad, día, reserva, cancelación
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, String> options;
+    private final HttpClient http;
+    private final String baseUrl;
+    private final List<Long> clientIds;
+    private final List<long[]> services; // {id, duración}
+    private final List<LocalDate> window;
+    private final List<LocalTime> slots;
+    private final Queue<Long> booked = new ConcurrentLinkedQueue<>();
+    private final MeterRegistry registry;
+
+    private EndpointStats availability;
+    private EndpointStats day;
+    private EndpointStats booking;
+    private EndpointStats cancel;
+
+    LoadTest(Map<String, String> options, String baseUrl, List<Long> clientIds, List<long[]> services,
+             List<LocalDate> window, List<LocalTime> slots, MeterRegistry registry) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.baseUrl = baseUrl;
+        this.clientIds = clientIds;
+        this.services = services;
+        this.window = window;
+        this.slots = slots;
+        this.registry = registry;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        List<String> appArgs = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.barberia=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--barberia.admission.enabled=" + options.getOrDefault("admission", "false")));
+        if (options.containsKey("snapshot")) {
+            appArgs.add("--barberia.dataset.snapshot=" + options.get("snapshot"));
+        }
+        String threads = options.getOrDefault("threads", "platform");
+        if (threads.equals("virtual")) {
+            appArgs.add("--spring.profiles.include=virtual-threads");
+        } else if (!threads.equals("platform")) {
+            throw new IllegalArgumentException("threads debe ser platform o virtual: " + threads);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BarberiaApplication.class)
+                .run(appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            if (!options.containsKey("snapshot")) {
+                seed(context, Integer.parseInt(options.getOrDefault("clients", "2000")));
+            }
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            List<Long> clientIds = jdbcTemplate.queryForList("SELECT id FROM clients ORDER BY id", Long.class);
+            List<long[]> services = jdbcTemplate.query(
+                "SELECT id, duration_minutes FROM services WHERE is_active = TRUE ORDER BY id",
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            BarberiaProperties properties = context.getBean(BarberiaProperties.class);
+            int days = Integer.parseInt(options.getOrDefault("days", "14"));
+            int stormSlots = Integer.parseInt(options.getOrDefault("storm-slots", "20"));
+            List<LocalDate> dates = workingDays(properties, LocalDate.now().plusDays(1), days + stormSlots);
+
+            LoadTest test = new LoadTest(options, "http://localhost:" + port + "/api/appointments", clientIds,
+                services, dates.subList(0, days), grid(properties), context.getBean(MeterRegistry.class));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("threads", threads);
+            report.put("storm", test.bookingStorm(dates.subList(days, dates.size()), context.getBean(BusinessCalendar.class)));
+            report.put("mixed", test.mixedLoad());
+            report.put("overlaps", overlaps(context.getBean(AppointmentRepository.class), dates));
+
+            ObjectMapper mapper = context.getBean(ObjectMapper.class).copy().enable(SerializationFeature.INDENT_OUTPUT);
+            Path output = Path.of(options.getOrDefault("output", "build/reports/loadtest/results.json"));
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            mapper.writeValue(output.toFile(), report);
+            print(report);
+            System.out.println("Resultados guardados en " + output);
+        }
+    }
+
+    /**
+     * Varios usuarios reservan a la vez el mismo horario con clientes distintos; cada
+     * horario tiene que terminar con exactamente una reserva confirmada. Solo se eligen
+     * horarios en los que el servicio termina dentro del horario de atención, y los
+     * rechazos se cuentan por motivo para no confundir un horario inválido con un choque
+     */
+    Map<String, Object> bookingStorm(List<LocalDate> dates, BusinessCalendar calendar) throws InterruptedException {
+        int users = Integer.parseInt(options.getOrDefault("users", "64"));
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        EndpointStats stats = new EndpointStats("POST /appointments (tormenta)");
+        long[] service = services.get(0);
+        List<Integer> successesPerSlot = new ArrayList<>();
+        Map<String, Double> outcomesBefore = bookingOutcomes();
+        long started = System.nanoTime();
+        try {
+            for (LocalDate date : dates) {
+                List<LocalTime> fitting = slots.stream()
+                    .filter(slot -> calendar.isWithinHours(date, slot, (int) service[1]))
+                    .toList();
+                if (fitting.isEmpty()) {
+                    continue;
+                }
+                LocalTime time = fitting.get(ThreadLocalRandom.current().nextInt(fitting.size()));
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(users);
+                AtomicInteger successes = new AtomicInteger();
+                for (int u = 0; u < users; u++) {
+                    Long clientId = clientIds.get(u % clientIds.size());
+                    executor.execute(() -> {
+                        try {
+                            start.await();
+                            long intended = System.nanoTime();
+                            int status = book(stats, intended, clientId, service[0], date, time);
+                            if (status == 200) {
+                                successes.incrementAndGet();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                done.await();
+                successesPerSlot.add(successes.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slots", successesPerSlot.size());
+        result.put("attemptsPerSlot", users);
+        result.put("successesPerSlot", successesPerSlot);
+        result.put("doubleBookings", successesPerSlot.stream().filter(s -> s > 1).count());
+        result.put("emptySlots", successesPerSlot.stream().filter(s -> s == 0).count());
+        result.put("outcomes", outcomesSince(outcomesBefore));
+        result.put("latency", stats.summary((System.nanoTime() - started) / 1e9));
+        return result;
+    }
+
+    /**
+     * Carga mixta a tasa constante: un calentamiento que se descarta y luego la medición
+     */
+    Map<String, Object> mixedLoad() throws InterruptedException {
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        int users = Integer.parseInt(options.getOrDefault("users", "64"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "15s"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "60s"));
+
+        runPhase(rate, users, warmup);
+        Map<String, Double> outcomesBefore = bookingOutcomes();
+        long started = System.nanoTime();
+        Map<String, Object> resources;
+        try (ResourceSampler sampler = new ResourceSampler(registry)) {
+            runPhase(rate, users, duration);
+            resources = sampler.summary();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetRate", rate);
+        result.put("users", users);
+        result.put("seconds", Math.round(seconds * 10) / 10.0);
+        long total = 0;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats stats : List.of(availability, day, booking, cancel)) {
+            endpoints.add(stats.summary(seconds));
+            total += stats.count();
+        }
+        result.put("throughput", Math.round(total / seconds * 10) / 10.0);
+        result.put("endpoints", endpoints);
+        result.put("bookingOutcomes", outcomesSince(outcomesBefore));
+        result.put("resources", resources);
+        return result;
+    }
+
+    private void runPhase(int rate, int users, Duration duration) throws InterruptedException {
+        availability = new EndpointStats("GET /appointments/availability");
+        day = new EndpointStats("GET /appointments/date/{date}");
+        booking = new EndpointStats("POST /appointments");
+        cancel = new EndpointStats("PUT /appointments/{id}/cancel");
+
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            executor.execute(() -> request(intended));
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    private void request(long intended) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = window.get(random.nextInt(window.size()));
+        LocalTime time = slots.get(random.nextInt(slots.size()));
+        long[] service = services.get(random.nextInt(services.size()));
+
+        int roll = random.nextInt(100);
+        if (roll < MIX[0]) {
+            send(availability, intended, get("/availability?date=" + date + "&time=" + time
+                + "&durationMinutes=" + service[1]));
+        } else if (roll < MIX[0] + MIX[1]) {
+            send(day, intended, get("/date/" + date));
+        } else if (roll < MIX[0] + MIX[1] + MIX[2]) {
+            book(booking, intended, clientIds.get(random.nextInt(clientIds.size())), service[0], date, time);
+        } else {
+            Long id = booked.poll();
+            if (id == null) {
+                send(day, intended, get("/date/" + date));
+            } else {
+                send(cancel, intended, HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/cancel"))
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build());
+            }
+        }
+    }
+
+    private int book(EndpointStats stats, long intended, Long clientId, long serviceId, LocalDate date, LocalTime time) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?clientId=" + clientId
+                + "&serviceIds=" + serviceId + "&date=" + date + "&time=" + time))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        HttpResponse<String> response = send(stats, intended, request);
+        if (response != null && response.statusCode() == 200) {
+            try {
+                JsonNode body = MAPPER.readTree(response.body());
+                booked.add(body.get("id").asLong());
+            } catch (IOException e) {
+                throw new IllegalStateException("Respuesta inesperada al reservar", e);
+            }
+        }
+        return response == null ? -1 : response.statusCode();
+    }
+
+    /**
+     * Intentos de reserva contados por la aplicación, por resultado
+     */
+    private Map<String, Double> bookingOutcomes() {
+        Map<String, Double> outcomes = new LinkedHashMap<>();
+        for (BookingOutcome outcome : BookingOutcome.values()) {
+            String tag = outcome.name().toLowerCase(Locale.ROOT);
+            Counter counter = registry.find("barberia.bookings").tag("outcome", tag).counter();
+            outcomes.put(tag, counter == null ? 0 : counter.count());
+        }
+        return outcomes;
+    }
+
+    private Map<String, Long> outcomesSince(Map<String, Double> before) {
+        Map<String, Long> outcomes = new LinkedHashMap<>();
+        bookingOutcomes().forEach((outcome, count) -> {
+            long delta = Math.round(count - before.getOrDefault(outcome, 0.0));
+            if (delta > 0) {
+                outcomes.put(outcome, delta);
+            }
+        });
+        return outcomes;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpResponse<String> send(EndpointStats stats, long intended, HttpRequest request) {
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.record(intended, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            stats.recordFailure(intended);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.recordFailure(intended);
+            return null;
+        }
+    }
+
+    /**
+     * Cantidad de pares de reservas confirmadas superpuestas en las fechas usadas
+     */
+    private static long overlaps(AppointmentRepository repository, List<LocalDate> dates) {
+        List<OccupiedSlot> occupied = new ArrayList<>(repository.findOccupiedSlotsInDateRange(
+            dates.get(0), dates.get(dates.size() - 1), AppointmentStatus.CONFIRMED));
+        occupied.sort(Comparator.comparing(OccupiedSlot::getAppointmentDate).thenComparing(OccupiedSlot::getAppointmentTime));
+        long overlaps = 0;
+        for (int i = 1; i < occupied.size(); i++) {
+            OccupiedSlot previous = occupied.get(i - 1);
+            OccupiedSlot current = occupied.get(i);
+            if (previous.getAppointmentDate().equals(current.getAppointmentDate())
+                    && previous.getAppointmentTime().plusMinutes(previous.getTotalDurationMinutes())
+                        .isAfter(current.getAppointmentTime())) {
+                overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    private static void seed(ConfigurableApplicationContext context, int clients) {
+        context.getBean(ServiceRepository.class).saveAll(List.of(
+            new Service("Corte", "Corte de pelo", new BigDecimal("14000"), 40, "scissors"),
+            new Service("Barba", "Arreglo de barba", new BigDecimal("8000"), 20, "zap"),
+            new Service("Corte + barba", "Corte de pelo y arreglo de barba", new BigDecimal("18000"), 60, "crown")));
+        List<Client> seeded = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            seeded.add(new Client("Cliente", "N" + i, "carga" + i + "@example.com", "+54911" + (20000000 + i)));
+        }
+        context.getBean(ClientRepository.class).saveAll(seeded);
+    }
+
+    private static List<LocalDate> workingDays(BarberiaProperties properties, LocalDate from, int count) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; dates.size() < count; date = date.plusDays(1)) {
+            if (properties.getWorkingDays().contains(date.getDayOfWeek())) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    private static List<LocalTime> grid(BarberiaProperties properties) {
+        BarberiaProperties.BusinessHours hours = properties.getBusinessHours();
+        List<LocalTime> slots = new ArrayList<>();
+        for (LocalTime time = hours.getStart(); time.isBefore(hours.getEnd()); time = time.plusMinutes(hours.getSlotDuration())) {
+            slots.add(time);
+        }
+        return slots;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        Map<String, Object> storm = (Map<String, Object>) report.get("storm");
+        System.out.printf("%nTormenta de reservas: %s horarios x %s intentos, reservas dobles: %s, horarios sin reserva: %s%n",
+            storm.get("slots"), storm.get("attemptsPerSlot"), storm.get("doubleBookings"), storm.get("emptySlots"));
+        System.out.printf("Resultados de la tormenta: %s%n", storm.get("outcomes"));
+
+        Map<String, Object> mixed = (Map<String, Object>) report.get("mixed");
+        System.out.printf("Carga mixta (hilos %s): %s pedidos/s objetivo, %s usuarios, %s s, %s pedidos/s logrados%n%n",
+            report.get("threads"), mixed.get("targetRate"), mixed.get("users"), mixed.get("seconds"),
+            mixed.get("throughput"));
+        System.out.printf("%-34s %9s %9s %9s %9s %9s %9s %7s %7s%n",
+            "Endpoint", "Pedidos", "Ped/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "400", "Error%");
+        for (Map<String, Object> endpoint : (List<Map<String, Object>>) mixed.get("endpoints")) {
+            System.out.printf("%-34s %9s %9s %9s %9s %9s %9s %7s %7.2f%n",
+                endpoint.get("endpoint"), endpoint.get("requests"), endpoint.get("throughput"),
+                endpoint.get("p50Ms"), endpoint.get("p99Ms"), endpoint.get("p999Ms"), endpoint.get("maxMs"),
+                endpoint.get("badRequest"), (Double) endpoint.get("errorRate") * 100);
+        }
+        System.out.printf("%nResultados de las reservas: %s%n", mixed.get("bookingOutcomes"));
+        System.out.printf("Recursos durante la medición: %s%n", mixed.get("resources"));
+        System.out.printf("Reservas confirmadas superpuestas: %s%n", report.get("overlaps"));
+    }
+}
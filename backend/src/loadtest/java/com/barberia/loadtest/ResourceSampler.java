@@ -0,0 +1,86 @@
+package com.barberia.loadtest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Muestrea el consumo de la JVM mientras dura una fase: hilos de plataforma vivos,
+ * heap usado y conexiones pedidas al pool que quedaron esperando.
+ *
+ * La aplicación corre en la misma JVM que la prueba, así que los hilos y la memoria
+ * incluyen los de los usuarios simulados; son los mismos en ambos modos de hilos, de
+ * modo que la diferencia entre dos corridas es la del servidor.
+ */
+class ResourceSampler implements AutoCloseable {
+
+    private static final long MB = 1024 * 1024;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final MeterRegistry registry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile int maxThreads;
+    private volatile long maxHeapUsed;
+    private volatile double maxPendingConnections;
+
+    ResourceSampler(MeterRegistry registry) {
+        this.registry = registry;
+        scheduler.scheduleAtFixedRate(this::sample, 0, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        maxThreads = Math.max(maxThreads, threads.getThreadCount());
+        maxHeapUsed = Math.max(maxHeapUsed, memory.getHeapMemoryUsage().getUsed());
+        Gauge pending = registry.find("hikaricp.connections.pending").gauge();
+        if (pending != null) {
+            maxPendingConnections = Math.max(maxPendingConnections, pending.value());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("platformThreadsMax", maxThreads);
+        summary.put("heapUsedMaxMb", maxHeapUsed / MB);
+        memory.gc();
+        summary.put("heapUsedAfterGcMb", memory.getHeapMemoryUsage().getUsed() / MB);
+        summary.put("nonHeapUsedMb", memory.getNonHeapMemoryUsage().getUsed() / MB);
+        summary.put("residentPeakMb", residentPeakMb());
+        summary.put("dbPendingConnectionsMax", (long) maxPendingConnections);
+        return summary;
+    }
+
+    /**
+     * Pico de memoria residente del proceso (incluye las pilas de los hilos de
+     * plataforma, que no están en el heap); -1 fuera de Linux
+     */
+    private static long residentPeakMb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // no disponible en este sistema
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.barberia.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Compara dos resultados de LoadTest, uno con hilos de plataforma y otro con hilos
+ * virtuales, obtenidos con la misma carga (ver la tarea compareThreadModes).
+ *
+ * Uso: ThreadModeComparison platform.json virtual.json [comparacion.json]
+ */
+public class ThreadModeComparison {
+
+    private static final List<String> MIXED = List.of("throughput");
+
+    private static final List<String> RESOURCES = List.of(
+        "platformThreadsMax", "heapUsedMaxMb", "heapUsedAfterGcMb", "nonHeapUsedMb", "residentPeakMb",
+        "dbPendingConnectionsMax");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Uso: ThreadModeComparison platform.json virtual.json [salida.json]");
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        JsonNode platform = mapper.readTree(Path.of(args[0]).toFile()).get("mixed");
+        JsonNode virtual = mapper.readTree(Path.of(args[1]).toFile()).get("mixed");
+
+        ObjectNode comparison = mapper.createObjectNode();
+        System.out.printf("%n%-44s %14s %14s%n", "Carga mixta", "Plataforma", "Virtuales");
+        for (String field : MIXED) {
+            row(comparison, field, platform.get(field), virtual.get(field));
+        }
+        for (String field : RESOURCES) {
+            row(comparison, field, platform.get("resources").get(field), virtual.get("resources").get(field));
+        }
+        for (int i = 0; i < platform.get("endpoints").size(); i++) {
+            JsonNode p = platform.get("endpoints").get(i);
+            JsonNode v = virtual.get("endpoints").get(i);
+            String name = p.get("endpoint").asText();
+            row(comparison, name + " p99Ms", p.get("p99Ms"), v.get("p99Ms"));
+            row(comparison, name + " errorRate", p.get("errorRate"), v.get("errorRate"));
+        }
+
+        if (args.length > 2) {
+            mapper.writeValue(Path.of(args[2]).toFile(), comparison);
+            System.out.println("\nComparación guardada en " + args[2]);
+        }
+    }
+
+    private static void row(ObjectNode comparison, String name, JsonNode platform, JsonNode virtual) {
+        ObjectNode values = comparison.putObject(name);
+        values.set("platform", platform);
+        values.set("virtual", virtual);
+        System.out.printf("%-44s %14s %14s%n", name, platform, virtual);
+    }
+}
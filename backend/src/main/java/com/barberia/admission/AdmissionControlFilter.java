@@ -0,0 +1,155 @@
+package com.barberia.admission;
+
+import com.barberia.config.BarberiaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión de las reservas (POST /appointments y /appointments/series) y las
+ * consultas de disponibilidad (/appointments/availability, /grid y /next-available).
+ *
+ * Cada pedido pasa primero por el token bucket de su clase y su IP; las reservas que
+ * traen clientId pasan además por el bucket de ese cliente, así cambiar el clientId no
+ * saltea el límite de la IP y varios clientes detrás de una misma IP se limitan también
+ * por separado. Después ocupa un lugar del límite global de
+ * pedidos en curso, donde las reservas pueden usar barberia.admission.booking-reserve
+ * lugares más que las consultas. Lo que no entra se responde enseguida con 429 y
+ * Retry-After, sin tocar la base. Todo se resuelve con contadores atómicos, sin locks.
+ *
+ * Corre después de la cadena de Spring Security, así los 429 llevan los headers de CORS.
+ * Los límites son por instancia.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String APPOINTMENTS = "/appointments";
+
+    private final BarberiaProperties.Admission config;
+
+    private final Map<RequestClass, RateLimiter> rateLimiters = new EnumMap<>(RequestClass.class);
+
+    private final Map<RequestClass, Integer> concurrencyLimits = new EnumMap<>(RequestClass.class);
+
+    private final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter();
+
+    private final Map<RequestClass, Counter> rateLimited = new EnumMap<>(RequestClass.class);
+
+    private final Map<RequestClass, Counter> overloaded = new EnumMap<>(RequestClass.class);
+
+    public AdmissionControlFilter(BarberiaProperties barberiaProperties, MeterRegistry meterRegistry) {
+        this.config = barberiaProperties.getAdmission();
+        if (config.getBookingReserve() < 0 || config.getBookingReserve() >= config.getMaxConcurrent()) {
+            throw new IllegalArgumentException("barberia.admission.booking-reserve debe ser menor que max-concurrent");
+        }
+        rateLimiters.put(RequestClass.BOOKING, rateLimiter(config.getBooking()));
+        rateLimiters.put(RequestClass.AVAILABILITY, rateLimiter(config.getAvailability()));
+        concurrencyLimits.put(RequestClass.BOOKING, config.getMaxConcurrent());
+        concurrencyLimits.put(RequestClass.AVAILABILITY, config.getMaxConcurrent() - config.getBookingReserve());
+
+        for (RequestClass requestClass : RequestClass.values()) {
+            String tag = requestClass.name().toLowerCase(Locale.ROOT);
+            rateLimited.put(requestClass, rejections(meterRegistry, tag, "rate_limited"));
+            overloaded.put(requestClass, rejections(meterRegistry, tag, "overloaded"));
+        }
+        Gauge.builder("barberia.admission.in.flight", concurrencyLimiter, ConcurrencyLimiter::inFlight)
+            .description("Reservas y consultas de disponibilidad en curso")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = classify(request);
+
+        RateLimiter rateLimiter = rateLimiters.get(requestClass);
+        long now = System.nanoTime();
+        long wait = rateLimiter.tryAcquire(ipKey(request), now);
+        if (wait == 0 && requestClass == RequestClass.BOOKING) {
+            String clientId = request.getParameter("clientId");
+            if (clientId != null && !clientId.isBlank()) {
+                wait = rateLimiter.tryAcquire("client:" + clientId, now);
+            }
+        }
+        if (wait != 0) {
+            rateLimited.get(requestClass).increment();
+            reject(response, wait);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire(concurrencyLimits.get(requestClass))) {
+            overloaded.get(requestClass).increment();
+            reject(response, config.getOverloadRetryAfter().toNanos());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release();
+        }
+    }
+
+    private RequestClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(APPOINTMENTS)) {
+            return null;
+        }
+        String rest = path.substring(APPOINTMENTS.length());
+        if (rest.isEmpty() || rest.equals("/") || rest.equals("/series")) {
+            return "POST".equals(request.getMethod()) ? RequestClass.BOOKING : null;
+        }
+        if ("GET".equals(request.getMethod())
+                && (rest.equals("/availability") || rest.equals("/grid") || rest.equals("/next-available"))) {
+            return RequestClass.AVAILABILITY;
+        }
+        return null;
+    }
+
+    private String ipKey(HttpServletRequest request) {
+        if (config.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return "ip:" + (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) {
+        // Retry-After va en segundos enteros: se redondea hacia arriba
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    }
+
+    private RateLimiter rateLimiter(BarberiaProperties.RateLimit limit) {
+        return new RateLimiter(limit.getPerMinute(), limit.getBurst(), config.getMaxClients());
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String requestClass, String reason) {
+        return Counter.builder("barberia.admission.rejected")
+            .description("Pedidos rechazados con 429 por el control de admisión")
+            .tag("class", requestClass)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.barberia.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite global de pedidos en curso, con prioridad por clase.
+ *
+ * Un solo contador compartido; cada clase de pedido entra solo si el contador está por
+ * debajo de su propio tope, así que las consultas de disponibilidad dejan libres los
+ * últimos lugares para las reservas. No hay cola: lo que no entra se rechaza enseguida,
+ * antes de llegar a la base.
+ */
+public class ConcurrencyLimiter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Ocupa un lugar si hay menos de limit pedidos en curso
+     */
+    public boolean tryAcquire(int limit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,92 @@
+package com.barberia.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket por clave, sin locks.
+ *
+ * Cada bucket es un único AtomicLong con el instante teórico en que volvería a estar
+ * lleno (algoritmo GCRA, equivalente a un token bucket): tomar un token es leerlo,
+ * calcular el nuevo valor y hacer compareAndSet, sin guardar tokens ni timestamps por
+ * separado. Un bucket cuyo instante ya pasó está lleno y se puede borrar sin perder
+ * nada, así que al llegar a maxKeys se descartan los buckets llenos, a lo sumo una vez
+ * por intervalo para no recorrer el mapa en cada pedido. Mientras no haya lugar, las
+ * claves nuevas comparten un bucket de desborde: quedan limitadas en conjunto pero no
+ * bloqueadas, y las claves que ya tienen bucket no se ven afectadas.
+ */
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Nanosegundos que tarda en reponerse un token
+     */
+    private final long interval;
+
+    /**
+     * Adelanto máximo sobre el ritmo sostenido: (burst - 1) tokens
+     */
+    private final long tolerance;
+
+    private final int maxKeys;
+
+    /**
+     * Bucket compartido por las claves nuevas mientras el mapa está lleno
+     */
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Instante a partir del cual se puede volver a recorrer el mapa buscando buckets llenos
+     */
+    private final AtomicLong nextEviction = new AtomicLong(Long.MIN_VALUE);
+
+    public RateLimiter(int perMinute, int burst, int maxKeys) {
+        if (perMinute < 1 || burst < 1) {
+            throw new IllegalArgumentException("El límite debe permitir al menos un pedido por minuto y una ráfaga de uno");
+        }
+        this.interval = 60_000_000_000L / perMinute;
+        this.tolerance = interval * (burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Toma un token del bucket de la clave. Devuelve 0 si lo obtuvo, o los nanosegundos
+     * que faltan para que haya uno.
+     */
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.size() < maxKeys || evictFull(now)
+                ? buckets.computeIfAbsent(key, k -> new AtomicLong(now))
+                : overflow;
+        }
+        while (true) {
+            long full = bucket.get();
+            long start = Math.max(full, now);
+            long wait = start - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Descarta los buckets llenos, si pasó un intervalo desde la última vez; indica si
+     * hay lugar para otro cliente
+     */
+    private boolean evictFull(long now) {
+        long due = nextEviction.get();
+        if ((due == Long.MIN_VALUE || now - due >= 0) && nextEviction.compareAndSet(due, now + interval)) {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+        return buckets.size() < maxKeys;
+    }
+}
@@ -0,0 +1,9 @@
+package com.barberia.admission;
+
+/**
+ * Clases de pedido sujetas a control de admisión, de mayor a menor prioridad
+ */
+public enum RequestClass {
+    BOOKING,
+    AVAILABILITY
+}
@@ -0,0 +1,798 @@
+package com.barberia.config;
+
+import com.barberia.model.AppointmentStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "barberia")
+@Validated
+public class BarberiaProperties {
+
+    @Valid
+    private BusinessHours businessHours = new BusinessHours();
+
+    private Set<DayOfWeek> workingDays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.SATURDAY);
+
+    /**
+     * Fechas en que no se atiende, aunque sean días laborables
+     */
+    private Set<LocalDate> holidays = new HashSet<>();
+
+    /**
+     * Fechas con un horario distinto del habitual; también abren días no laborables
+     */
+    private List<SpecialHours> specialHours = new ArrayList<>();
+
+    @Valid
+    private Booking booking = new Booking();
+
+    @Valid
+    private BulkImport bulkImport = new BulkImport();
+
+    @Valid
+    private Dataset dataset = new Dataset();
+
+    @Valid
+    private Events events = new Events();
+
+    @Valid
+    private EndOfDay endOfDay = new EndOfDay();
+
+    @Valid
+    private Archive archive = new Archive();
+
+    @Valid
+    private Outbox outbox = new Outbox();
+
+    @Valid
+    private Idempotency idempotency = new Idempotency();
+
+    @Valid
+    private Admission admission = new Admission();
+
+    public BusinessHours getBusinessHours() {
+        return businessHours;
+    }
+
+    public void setBusinessHours(BusinessHours businessHours) {
+        this.businessHours = businessHours;
+    }
+
+    public Set<DayOfWeek> getWorkingDays() {
+        return workingDays;
+    }
+
+    public void setWorkingDays(Set<DayOfWeek> workingDays) {
+        this.workingDays = workingDays;
+    }
+
+    public Set<LocalDate> getHolidays() {
+        return holidays;
+    }
+
+    public void setHolidays(Set<LocalDate> holidays) {
+        this.holidays = holidays;
+    }
+
+    public List<SpecialHours> getSpecialHours() {
+        return specialHours;
+    }
+
+    public void setSpecialHours(List<SpecialHours> specialHours) {
+        this.specialHours = specialHours;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public void setBulkImport(BulkImport bulkImport) {
+        this.bulkImport = bulkImport;
+    }
+
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    public void setDataset(Dataset dataset) {
+        this.dataset = dataset;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public void setEvents(Events events) {
+        this.events = events;
+    }
+
+    public EndOfDay getEndOfDay() {
+        return endOfDay;
+    }
+
+    public void setEndOfDay(EndOfDay endOfDay) {
+        this.endOfDay = endOfDay;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public void setArchive(Archive archive) {
+        this.archive = archive;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(Idempotency idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public static class BusinessHours {
+
+        private LocalTime start = LocalTime.of(9, 0);
+
+        private LocalTime end = LocalTime.of(19, 0);
+
+        /**
+         * Duración de cada slot en minutos
+         */
+        @Min(1)
+        private int slotDuration = 30;
+
+        public LocalTime getStart() {
+            return start;
+        }
+
+        public void setStart(LocalTime start) {
+            this.start = start;
+        }
+
+        public LocalTime getEnd() {
+            return end;
+        }
+
+        public void setEnd(LocalTime end) {
+            this.end = end;
+        }
+
+        public int getSlotDuration() {
+            return slotDuration;
+        }
+
+        public void setSlotDuration(int slotDuration) {
+            this.slotDuration = slotDuration;
+        }
+    }
+
+    public static class SpecialHours {
+
+        private LocalDate date;
+
+        private LocalTime start;
+
+        private LocalTime end;
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public LocalTime getStart() {
+            return start;
+        }
+
+        public void setStart(LocalTime start) {
+            this.start = start;
+        }
+
+        public LocalTime getEnd() {
+            return end;
+        }
+
+        public void setEnd(LocalTime end) {
+            this.end = end;
+        }
+    }
+
+    public static class Booking {
+
+        /**
+         * Cantidad de locks entre los que se reparten las fechas
+         */
+        @Min(1)
+        private int lockStripes = 64;
+
+        /**
+         * Tiempo máximo de espera por el lock de una fecha
+         */
+        private Duration lockTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Granularidad en minutos de las unidades reclamadas en slot_claims
+         */
+        @Min(1)
+        private int claimUnitMinutes = 5;
+
+        /**
+         * Antigüedad máxima de un día en el índice de ocupación; sin valor no expira
+         */
+        private Duration occupancyMaxAge;
+
+        /**
+         * Días desde hoy que se guardan en el índice de ocupación; cubre las series recurrentes
+         */
+        private int occupancyHorizonDays = 400;
+
+        public int getLockStripes() {
+            return lockStripes;
+        }
+
+        public void setLockStripes(int lockStripes) {
+            this.lockStripes = lockStripes;
+        }
+
+        public Duration getLockTimeout() {
+            return lockTimeout;
+        }
+
+        public void setLockTimeout(Duration lockTimeout) {
+            this.lockTimeout = lockTimeout;
+        }
+
+        public int getClaimUnitMinutes() {
+            return claimUnitMinutes;
+        }
+
+        public void setClaimUnitMinutes(int claimUnitMinutes) {
+            this.claimUnitMinutes = claimUnitMinutes;
+        }
+
+        public Duration getOccupancyMaxAge() {
+            return occupancyMaxAge;
+        }
+
+        public void setOccupancyMaxAge(Duration occupancyMaxAge) {
+            this.occupancyMaxAge = occupancyMaxAge;
+        }
+
+        public int getOccupancyHorizonDays() {
+            return occupancyHorizonDays;
+        }
+
+        public void setOccupancyHorizonDays(int occupancyHorizonDays) {
+            this.occupancyHorizonDays = occupancyHorizonDays;
+        }
+    }
+
+    public static class BulkImport {
+
+        /**
+         * Filas insertadas por transacción (y por lote JDBC)
+         */
+        @Min(1)
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Dataset {
+
+        /**
+         * Snapshot que se carga al iniciar si la base está vacía; sin valor no se carga nada
+         */
+        private String snapshot;
+
+        /**
+         * Filas por lote JDBC al cargar el snapshot
+         */
+        @Min(1)
+        private int batchSize = 5000;
+
+        /**
+         * Hilos (y conexiones) que insertan lotes en paralelo durante la carga
+         */
+        @Min(1)
+        private int writerThreads = 4;
+
+        public String getSnapshot() {
+            return snapshot;
+        }
+
+        public void setSnapshot(String snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+    }
+
+    public static class Events {
+
+        /**
+         * Suscripciones abiertas como máximo; las siguientes se rechazan
+         */
+        private int maxSubscribers = 10000;
+
+        /**
+         * Días que puede abarcar una suscripción
+         */
+        private int maxRangeDays = 62;
+
+        /**
+         * Eventos pendientes por suscriptor; si se llena, el suscriptor se desconecta
+         */
+        @Min(1)
+        private int bufferSize = 64;
+
+        /**
+         * Hilos que escriben los eventos; con hilos virtuales se usa uno por envío
+         */
+        @Min(1)
+        private int senderThreads = 4;
+
+        /**
+         * Intervalo de los comentarios que mantienen viva la conexión y detectan clientes caídos
+         */
+        private Duration heartbeat = Duration.ofSeconds(30);
+
+        /**
+         * Duración máxima de una suscripción; el cliente vuelve a conectarse al vencer
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public int getMaxRangeDays() {
+            return maxRangeDays;
+        }
+
+        public void setMaxRangeDays(int maxRangeDays) {
+            this.maxRangeDays = maxRangeDays;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class EndOfDay {
+
+        /**
+         * Estado que reciben las reservas confirmadas cuyo horario ya terminó
+         */
+        private AppointmentStatus elapsedStatus = AppointmentStatus.COMPLETED;
+
+        /**
+         * Fechas cerradas por transacción
+         */
+        @Min(1)
+        private int batchDays = 31;
+
+        public AppointmentStatus getElapsedStatus() {
+            return elapsedStatus;
+        }
+
+        public void setElapsedStatus(AppointmentStatus elapsedStatus) {
+            this.elapsedStatus = elapsedStatus;
+        }
+
+        public int getBatchDays() {
+            return batchDays;
+        }
+
+        public void setBatchDays(int batchDays) {
+            this.batchDays = batchDays;
+        }
+    }
+
+    public static class Archive {
+
+        /**
+         * Antigüedad a partir de la cual las reservas finalizadas se archivan
+         */
+        private Duration maxAge = Duration.ofDays(365);
+
+        /**
+         * Reservas movidas por transacción
+         */
+        @Min(1)
+        private int batchSize = 1000;
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Outbox {
+
+        /**
+         * Implementación de NotificationSender a usar
+         */
+        private String sender = "log";
+
+        /**
+         * Archivo JSON lines donde LogNotificationSender agrega las notificaciones (opcional)
+         */
+        private String file;
+
+        /**
+         * Espera entre consultas a la tabla outbox cuando no quedan mensajes listos
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Mensajes enviados por lote
+         */
+        @Min(1)
+        private int batchSize = 100;
+
+        /**
+         * Intentos antes de marcar un mensaje como FAILED
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Espera antes del primer reintento; se duplica en cada intento
+         */
+        private Duration initialBackoff = Duration.ofSeconds(10);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * Tiempo que un lote tomado queda reservado; si la instancia se cae, se vuelve a enviar
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Anticipación del recordatorio respecto del horario de la reserva
+         */
+        private Duration reminderLead = Duration.ofHours(24);
+
+        public String getSender() {
+            return sender;
+        }
+
+        public void setSender(String sender) {
+            this.sender = sender;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getReminderLead() {
+            return reminderLead;
+        }
+
+        public void setReminderLead(Duration reminderLead) {
+            this.reminderLead = reminderLead;
+        }
+    }
+
+    public static class Idempotency {
+
+        /**
+         * Tiempo durante el que una clave devuelve la reserva que creó
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * Claves guardadas en memoria; las que no entran se resuelven desde la base
+         */
+        @Min(1)
+        private int maxEntries = 10000;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class Admission {
+
+        private boolean enabled = true;
+
+        /**
+         * Pedidos de reserva y disponibilidad atendiéndose a la vez en la instancia
+         */
+        private int maxConcurrent = 64;
+
+        /**
+         * Lugares de max-concurrent que solo pueden usar las reservas
+         */
+        private int bookingReserve = 16;
+
+        /**
+         * Buckets por IP o cliente en memoria; al llenarse, las claves nuevas comparten uno
+         */
+        private int maxClients = 100000;
+
+        /**
+         * Usar la primera dirección de X-Forwarded-For (solo detrás de un proxy confiable)
+         */
+        private boolean trustForwardedFor = false;
+
+        /**
+         * Retry-After de los pedidos rechazados por falta de capacidad
+         */
+        private Duration overloadRetryAfter = Duration.ofSeconds(1);
+
+        @Valid
+        private RateLimit booking = new RateLimit(10, 5);
+
+        @Valid
+        private RateLimit availability = new RateLimit(120, 20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getBookingReserve() {
+            return bookingReserve;
+        }
+
+        public void setBookingReserve(int bookingReserve) {
+            this.bookingReserve = bookingReserve;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public boolean isTrustForwardedFor() {
+            return trustForwardedFor;
+        }
+
+        public void setTrustForwardedFor(boolean trustForwardedFor) {
+            this.trustForwardedFor = trustForwardedFor;
+        }
+
+        public Duration getOverloadRetryAfter() {
+            return overloadRetryAfter;
+        }
+
+        public void setOverloadRetryAfter(Duration overloadRetryAfter) {
+            this.overloadRetryAfter = overloadRetryAfter;
+        }
+
+        public RateLimit getBooking() {
+            return booking;
+        }
+
+        public void setBooking(RateLimit booking) {
+            this.booking = booking;
+        }
+
+        public RateLimit getAvailability() {
+            return availability;
+        }
+
+        public void setAvailability(RateLimit availability) {
+            this.availability = availability;
+        }
+    }
+
+    public static class RateLimit {
+
+        /**
+         * Pedidos por minuto que se reponen en el bucket de cada cliente
+         */
+        @Min(1)
+        private int perMinute;
+
+        /**
+         * Capacidad del bucket: pedidos seguidos permitidos antes de limitar
+         */
+        @Min(1)
+        private int burst;
+
+        public RateLimit() {}
+
+        public RateLimit(int perMinute, int burst) {
+            this.perMinute = perMinute;
+            this.burst = burst;
+        }
+
+        public int getPerMinute() {
+            return perMinute;
+        }
+
+        public void setPerMinute(int perMinute) {
+            this.perMinute = perMinute;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
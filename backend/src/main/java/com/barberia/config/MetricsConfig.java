@@ -0,0 +1,91 @@
+package com.barberia.config;
+
+import com.barberia.service.BusinessCalendar;
+import com.barberia.service.IdempotencyService;
+import com.barberia.service.OutboxDispatcher;
+import com.barberia.service.ServiceCatalog;
+import com.barberia.service.SlotEventBroadcaster;
+import com.barberia.service.SlotOccupancyIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+
+/**
+ * Métricas propias de la barbería. Los tiempos de AppointmentService se miden con
+ * {@code @Timed} y los de los repositorios con las métricas spring.data.repository.invocations
+ * que Spring Boot registra solo.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Días hacia adelante, desde hoy, con gauge de ocupación
+     */
+    private static final int OCCUPANCY_DAYS = 7;
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder barberiaGauges(SlotOccupancyIndex slotOccupancyIndex, ServiceCatalog serviceCatalog,
+                                      SlotEventBroadcaster slotEventBroadcaster,
+                                      BusinessCalendar businessCalendar, OutboxDispatcher outboxDispatcher,
+                                      IdempotencyService idempotencyService) {
+        return registry -> {
+            Gauge.builder("barberia.occupancy.cached.days", slotOccupancyIndex, SlotOccupancyIndex::cachedDays)
+                .description("Días cargados en el índice de ocupación")
+                .register(registry);
+            Gauge.builder("barberia.catalog.services", serviceCatalog, ServiceCatalog::size)
+                .description("Servicios activos en el catálogo en memoria")
+                .register(registry);
+            Gauge.builder("barberia.catalog.quotes", serviceCatalog, ServiceCatalog::cachedQuotes)
+                .description("Combinaciones de servicios cotizadas en memoria")
+                .register(registry);
+            Gauge.builder("barberia.events.subscribers", slotEventBroadcaster, SlotEventBroadcaster::subscriberCount)
+                .description("Suscripciones abiertas a eventos de horarios")
+                .register(registry);
+            FunctionCounter.builder("barberia.events.evictions", slotEventBroadcaster, SlotEventBroadcaster::evictionCount)
+                .description("Suscriptores desconectados por no leer los eventos a tiempo")
+                .register(registry);
+            FunctionCounter.builder("barberia.outbox.delivered", outboxDispatcher, OutboxDispatcher::deliveredCount)
+                .description("Notificaciones entregadas")
+                .register(registry);
+            FunctionCounter.builder("barberia.outbox.failures", outboxDispatcher, OutboxDispatcher::failureCount)
+                .description("Intentos de envío de notificaciones fallidos")
+                .register(registry);
+            FunctionCounter.builder("barberia.idempotency.replays", idempotencyService, IdempotencyService::replayCount)
+                .description("Reintentos de reserva respondidos con la reserva ya creada")
+                .register(registry);
+            Gauge.builder("barberia.idempotency.cached.keys", idempotencyService, IdempotencyService::cachedKeys)
+                .description("Claves de idempotencia en memoria")
+                .register(registry);
+
+            for (int daysAhead = 0; daysAhead < OCCUPANCY_DAYS; daysAhead++) {
+                int offset = daysAhead;
+                Gauge.builder("barberia.occupancy.ratio",
+                        () -> occupancy(slotOccupancyIndex, businessCalendar, LocalDate.now().plusDays(offset)))
+                    .description("Fracción del horario de atención ya reservada")
+                    .tag("days.ahead", String.valueOf(offset))
+                    .register(registry);
+            }
+        };
+    }
+
+    private static double occupancy(SlotOccupancyIndex slotOccupancyIndex, BusinessCalendar businessCalendar,
+                                    LocalDate date) {
+        if (!businessCalendar.isOpen(date)) {
+            return 0;
+        }
+        int open = businessCalendar.openMinute(date);
+        int close = businessCalendar.closeMinute(date);
+        return (double) slotOccupancyIndex.occupiedMinutes(date, open, close) / (close - open);
+    }
+}
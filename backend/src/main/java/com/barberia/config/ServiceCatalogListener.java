@@ -0,0 +1,43 @@
+package com.barberia.config;
+
+import com.barberia.model.Service;
+import com.barberia.service.AgendaVersions;
+import com.barberia.service.RollupService;
+import com.barberia.service.ServiceCatalog;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Invalida el {@link ServiceCatalog} cada vez que se escribe un servicio, sube la
+ * versión de todas las fechas porque las reservas publicadas incluyen sus servicios, y
+ * recalcula los rollups por servicio, que usan su precio y su duración vigentes.
+ *
+ * Hibernate crea el listener mientras se construye el EntityManagerFactory, del que
+ * ServiceCatalog depende a través del repositorio; por eso la referencia es @Lazy.
+ */
+public class ServiceCatalogListener {
+
+    @Autowired
+    @Lazy
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    @Lazy
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    @Lazy
+    private RollupService rollupService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Service service) {
+        serviceCatalog.invalidate();
+        agendaVersions.changedAll();
+        rollupService.serviceChanged(service.getId());
+    }
+}
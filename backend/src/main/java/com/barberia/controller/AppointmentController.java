@@ -1,13 +1,40 @@
 package com.barberia.controller;
 
-import com.barberia.model.Appointment;
+import com.barberia.dto.AppointmentDto;
+import com.barberia.dto.AppointmentImportRequest;
+import com.barberia.dto.AppointmentPageDto;
+import com.barberia.dto.ArchiveResultDto;
+import com.barberia.dto.DayAvailabilityDto;
+import com.barberia.dto.EndOfDayResultDto;
+import com.barberia.dto.ImportResultDto;
+import com.barberia.dto.RecurringSeriesRequest;
+import com.barberia.dto.RecurringSeriesResultDto;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.service.AppointmentExportService;
+import com.barberia.service.AppointmentImportService;
+import com.barberia.service.AgendaVersions;
 import com.barberia.service.AppointmentService;
+import com.barberia.service.ArchiveService;
+import com.barberia.service.EndOfDayService;
+import com.barberia.service.IdempotencyService;
+import com.barberia.service.RecurringSeriesService;
+import com.barberia.service.SlotEventBroadcaster;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -16,22 +43,53 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class AppointmentController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private AppointmentExportService appointmentExportService;
+
+    @Autowired
+    private AppointmentImportService appointmentImportService;
+
+    @Autowired
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    private SlotEventBroadcaster slotEventBroadcaster;
+
+    @Autowired
+    private EndOfDayService endOfDayService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private RecurringSeriesService recurringSeriesService;
+
     /**
-     * Crear una nueva reserva
+     * Crear una nueva reserva; con Idempotency-Key, los reintentos devuelven la reserva ya creada
      */
     @PostMapping
-    public ResponseEntity<Appointment> createAppointment(
+    public ResponseEntity<AppointmentDto> createAppointment(
             @RequestParam Long clientId,
             @RequestParam List<Long> serviceIds,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime time,
-            @RequestParam(required = false) String notes) {
+            @RequestParam(required = false) String notes,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         
         try {
-            Appointment appointment = appointmentService.createAppointment(clientId, serviceIds, date, time, notes);
+            AppointmentDto appointment = idempotencyKey != null
+                ? idempotencyService.createAppointment(idempotencyKey, clientId, serviceIds, date, time, notes)
+                : appointmentService.createAppointment(clientId, serviceIds, date, time, notes);
             return ResponseEntity.ok(appointment);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -39,53 +97,140 @@ public class AppointmentController {
     }
 
     /**
-     * Obtener todas las reservas activas
+     * Crear una serie de reservas recurrentes; informa las fechas que no se pudieron reservar
+     */
+    @PostMapping("/series")
+    public ResponseEntity<RecurringSeriesResultDto> createSeries(@RequestBody RecurringSeriesRequest request) {
+        try {
+            return ResponseEntity.ok(recurringSeriesService.createSeries(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Importar reservas en lote
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDto> importAppointments(@RequestBody List<AppointmentImportRequest> rows) {
+        return ResponseEntity.ok(appointmentImportService.importAppointments(rows));
+    }
+
+    /**
+     * Obtener las reservas activas, paginadas por cursor
      */
     @GetMapping
-    public ResponseEntity<List<Appointment>> getAllAppointments() {
-        List<Appointment> appointments = appointmentService.getAllActiveAppointments();
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<AppointmentPageDto> getAllAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(appointmentService.getActiveAppointmentsPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * Obtener reservas por fecha
+     * Obtener reservas por fecha; responde 304 si la agenda del día no cambió
      */
     @GetMapping("/date/{date}")
-    public ResponseEntity<List<Appointment>> getAppointmentsByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Appointment> appointments = appointmentService.getAppointmentsByDate(date);
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request) {
+        // El ETag se calcula antes de leer: si cambia durante la consulta, el próximo pedido lo verá
+        if (request.checkNotModified(agendaVersions.etag(date))) {
+            return null;
+        }
+        List<AppointmentDto> appointments = appointmentService.getAppointmentsByDate(date);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(appointments);
     }
 
     /**
      * Obtener reservas por cliente
      */
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<Appointments>> getAppointmentsByClient(@PathVariable Long clientId) {
-        List<Appointments> appointments = appointmentService.getAppointmentsByClient(clientId);
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByClient(@PathVariable Long clientId) {
+        List<AppointmentDto> appointments = appointmentService.getAppointmentsByClient(clientId);
         return ResponseEntity.ok(appointments);
     }
 
     /**
-     * Verificar disponibilidad de un horario
+     * Obtener el historial completo de un cliente, incluidas las reservas archivadas
+     */
+    @GetMapping("/client/{clientId}/history")
+    public ResponseEntity<List<AppointmentDto>> getClientHistory(@PathVariable Long clientId) {
+        return ResponseEntity.ok(appointmentService.getClientHistory(clientId));
+    }
+
+    /**
+     * Verificar disponibilidad de un horario; responde 304 si la agenda del día no cambió
      */
     @GetMapping("/availability")
     public ResponseEntity<Boolean> checkAvailability(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime time,
-            @RequestParam Integer durationMinutes) {
+            @RequestParam Integer durationMinutes,
+            WebRequest request) {
         
+        if (request.checkNotModified(agendaVersions.etag(date))) {
+            return null;
+        }
         boolean isAvailable = appointmentService.isTimeSlotAvailable(date, time, durationMinutes);
-        return ResponseEntity.ok(isAvailable);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(isAvailable);
+    }
+
+    /**
+     * Obtener la grilla de horarios libres de un día o de la semana que lo contiene
+     */
+    @GetMapping("/grid")
+    public ResponseEntity<List<DayAvailabilityDto>> getAvailabilityGrid(
+            @RequestParam List<Long> serviceIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "day") String view) {
+        
+        boolean week = "week".equalsIgnoreCase(view);
+        LocalDate startDate = week ? date.with(DayOfWeek.MONDAY) : date;
+        try {
+            List<DayAvailabilityDto> grid = appointmentService.getAvailabilityGrid(serviceIds, startDate, week ? 7 : 1);
+            return ResponseEntity.ok(grid);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtener los próximos horarios libres para un conjunto de servicios
+     */
+    @GetMapping("/next-available")
+    public ResponseEntity<List<LocalDateTime>> getNextAvailableSlots(
+            @RequestParam List<Long> serviceIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "30") int horizonDays,
+            @RequestParam(defaultValue = "5") int limit) {
+        
+        if (horizonDays < 1 || horizonDays > 366 || limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<LocalDateTime> slots = appointmentService.findNextAvailableSlots(
+                serviceIds, from != null ? from : LocalDate.now(), horizonDays, limit);
+            return ResponseEntity.ok(slots);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
      * Cancelar una reserva
      */
     @PutMapping("/{id}/cancel")
-    public ResponseEntity<Appointment> cancelAppointment(@PathVariable Long id) {
+    public ResponseEntity<AppointmentDto> cancelAppointment(@PathVariable Long id) {
         try {
-            Appointment appointment = appointmentService.cancelAppointment(id);
+            AppointmentDto appointment = appointmentService.cancelAppointment(id);
             return ResponseEntity.ok(appointment);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -96,9 +241,9 @@ public class AppointmentController {
      * Marcar una reserva como completada
      */
     @PutMapping("/{id}/complete")
-    public ResponseEntity<Appointment> completeAppointment(@PathVariable Long id) {
+    public ResponseEntity<AppointmentDto> completeAppointment(@PathVariable Long id) {
         try {
-            Appointment appointment = appointmentService.completeAppointment(id);
+            AppointmentDto appointment = appointmentService.completeAppointment(id);
             return ResponseEntity.ok(appointment);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -106,14 +251,94 @@ public class AppointmentController {
     }
 
     /**
-     * Obtener reservas en un rango de fechas
+     * Cerrar las reservas confirmadas que ya terminaron (COMPLETED o NO_SHOW; por defecto, el estado configurado)
      */
-    @GetMapping("/range")
-    public ResponseEntity<List<Appointment>> getAppointmentsInRange(
+    @PostMapping("/close-elapsed")
+    public ResponseEntity<EndOfDayResultDto> closeElapsedAppointments(
+            @RequestParam(required = false) AppointmentStatus status) {
+        try {
+            return ResponseEntity.ok(status != null
+                ? endOfDayService.closeElapsed(status) : endOfDayService.closeElapsed());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Archivar las reservas finalizadas con más antigüedad que barberia.archive.max-age
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<ArchiveResultDto> archiveAppointments() {
+        return ResponseEntity.ok(archiveService.archive());
+    }
+
+    /**
+     * Suscribirse por Server-Sent Events a los horarios que se ocupan o se liberan en un
+     * rango de fechas (eventos slot-taken y slot-freed)
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToSlotEvents(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
-        List<Appointment> appointments = appointmentService.getAppointmentsInDateRange(startDate, endDate);
-        return ResponseEntity.ok(appointments);
+        try {
+            return ResponseEntity.ok(slotEventBroadcaster.subscribe(startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Exportar las reservas de un rango de fechas en streaming (NDJSON o CSV)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        
+        AppointmentExportService.Format exportFormat;
+        try {
+            exportFormat = AppointmentExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        boolean csv = exportFormat == AppointmentExportService.Format.CSV;
+        String filename = "reservas-" + startDate + "-" + endDate + (csv ? ".csv" : ".ndjson");
+        StreamingResponseBody body = out -> appointmentExportService.export(startDate, endDate, status, exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+
+    /**
+     * Obtener reservas en un rango de fechas, paginadas por cursor; responde 304 si
+     * ninguna fecha del rango cambió
+     */
+    @GetMapping("/range")
+    public ResponseEntity<AppointmentPageDto> getAppointmentsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!endDate.isBefore(startDate) && request.checkNotModified(agendaVersions.etag(startDate, endDate))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(appointmentService.getAppointmentsInDateRangePage(startDate, endDate, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
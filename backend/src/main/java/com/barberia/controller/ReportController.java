@@ -0,0 +1,72 @@
+package com.barberia.controller;
+
+import com.barberia.dto.RevenuePeriodDto;
+import com.barberia.dto.RollupRebuildDto;
+import com.barberia.dto.ServiceRevenueDto;
+import com.barberia.service.ReportService;
+import com.barberia.service.RollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    /**
+     * Ingresos y ocupación del rango, por día, semana o mes (groupBy=day|week|month)
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenuePeriodDto>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        try {
+            ReportService.GroupBy grouping = ReportService.GroupBy.valueOf(groupBy.toUpperCase());
+            return ResponseEntity.ok(reportService.getRevenue(startDate, endDate, grouping));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Reservas, ingresos y minutos de cada servicio en el rango
+     */
+    @GetMapping("/services")
+    public ResponseEntity<List<ServiceRevenueDto>> getRevenueByService(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(reportService.getRevenueByService(startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recalcula los rollups desde las reservas; sin fechas, todas las que tienen reservas
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<RollupRebuildDto> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (startDate == null && endDate == null) {
+            return ResponseEntity.ok(rollupService.rebuildAll());
+        }
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rollupService.rebuild(startDate, endDate));
+    }
+}
@@ -0,0 +1,322 @@
+package com.barberia.dataset;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.model.AppointmentStatus;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Genera un dataset sintético con distribuciones parecidas a las reales: más demanda a
+ * última hora de la tarde y los sábados, clientes que vuelven con frecuencia muy
+ * distinta, cancelaciones, ausentes y reservas completadas en el pasado.
+ *
+ * Las reservas que ocupan horario (CONFIRMED, COMPLETED, NO_SHOW) nunca se superponen
+ * y respetan una reserva por cliente y día; las canceladas pueden coincidir con otras.
+ * Con la misma semilla el resultado es siempre el mismo.
+ *
+ * Como la agenda es una sola, el volumen de reservas crece con la cantidad de días:
+ * entre 8 y 9 por día hábil con el horario por defecto.
+ *
+ * Uso: DatasetGenerator --output=data/snapshot.bin.gz [--clients=200000] [--days=730]
+ *      [--from=2024-01-01] [--today=2025-01-01] [--seed=42]
+ *
+ * El horario y los días hábiles salen de application.yml y de los perfiles activos,
+ * como en la aplicación; también se pueden pasar como --barberia.business-hours.end=20:00.
+ */
+public class DatasetGenerator {
+
+    private static final String[] FIRST_NAMES = {
+        "Juan", "Martín", "Lucas", "Mateo", "Santiago", "Nicolás", "Facundo", "Tomás", "Agustín", "Diego",
+        "Federico", "Gonzalo", "Pablo", "Marcelo", "Andrés", "Joaquín", "Franco", "Ignacio", "Bruno", "Emiliano"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "González", "Rodríguez", "Gómez", "Fernández", "López", "Díaz", "Martínez", "Pérez", "García", "Sánchez",
+        "Romero", "Sosa", "Álvarez", "Torres", "Ruiz", "Ramírez", "Flores", "Benítez", "Acosta", "Medina"
+    };
+
+    /**
+     * Combinaciones de servicios que se reservan y su peso relativo
+     */
+    private static final long[][] BUNDLES = {{1}, {3}, {2}, {1, 4}, {5}, {2, 4}, {6}};
+    private static final int[] BUNDLE_WEIGHTS = {40, 22, 12, 8, 10, 3, 5};
+
+    private final BarberiaProperties.BusinessHours hours;
+    private final Set<DayOfWeek> workingDays;
+    private final int clients;
+    private final LocalDate from;
+    private final int days;
+    private final LocalDate today;
+    private final Random random;
+
+    private final Map<Long, Integer> durations = new HashMap<>();
+
+    public DatasetGenerator(BarberiaProperties properties, int clients, LocalDate from, int days,
+                            LocalDate today, long seed) {
+        this.hours = properties.getBusinessHours();
+        this.workingDays = properties.getWorkingDays();
+        this.clients = clients;
+        this.from = from;
+        this.days = days;
+        this.today = today;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Produce todo el dataset; devuelve la cantidad de reservas generadas
+     */
+    public long generate(DatasetSink sink) {
+        services(sink);
+        for (long id = 1; id <= clients; id++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            sink.client(id, firstName, lastName, "cliente" + id + "@example.com", "+54911" + (10000000 + id),
+                from.minusDays(random.nextInt(365)).atTime(10, 0).plusMinutes(random.nextInt(600)));
+        }
+
+        long appointmentId = 0;
+        for (int d = 0; d < days; d++) {
+            LocalDate date = from.plusDays(d);
+            if (workingDays.contains(date.getDayOfWeek())) {
+                appointmentId = day(sink, date, appointmentId);
+            }
+        }
+        return appointmentId;
+    }
+
+    private void services(DatasetSink sink) {
+        service(sink, 1, "Corte", "Corte de pelo", "14000", 40, "scissors");
+        service(sink, 2, "Barba", "Arreglo y perfilado de barba", "8000", 20, "zap");
+        service(sink, 3, "Corte + barba", "Corte de pelo y arreglo de barba", "18000", 60, "crown");
+        service(sink, 4, "Perfilado de cejas", "Perfilado de cejas", "5000", 10, "eye");
+        service(sink, 5, "Corte completo", "Pelo + barba + perfilado de cejas", "20000", 70, "sparkles");
+        service(sink, 6, "Corte premium", "Pelo + barba + perfilado de cejas + limpieza facial + masaje facial",
+            "30000", 120, "star");
+    }
+
+    private void service(DatasetSink sink, long id, String name, String description, String price,
+                         int durationMinutes, String iconName) {
+        durations.put(id, durationMinutes);
+        sink.service(id, name, description, new BigDecimal(price), durationMinutes, iconName);
+    }
+
+    private long day(DatasetSink sink, LocalDate date, long appointmentId) {
+        int open = hours.getStart().toSecondOfDay() / 60;
+        int close = hours.getEnd().toSecondOfDay() / 60;
+        int step = hours.getSlotDuration();
+        int slots = (close - open) / step;
+        if (slots <= 0) {
+            return appointmentId;
+        }
+
+        double[] weights = new double[slots];
+        double totalWeight = 0;
+        for (int i = 0; i < slots; i++) {
+            weights[i] = slotWeight(date.getDayOfWeek(), open + i * step);
+            totalWeight += weights[i];
+        }
+
+        boolean[] occupied = new boolean[close - open];
+        Set<Long> bookedClients = new HashSet<>();
+        boolean past = date.isBefore(today);
+        int attempts = (int) Math.round(slots * demand(date.getDayOfWeek()) * (0.8 + 0.4 * random.nextDouble()));
+
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            int start = open + pick(weights, totalWeight) * step;
+            long[] bundle = BUNDLES[pick(BUNDLE_WEIGHTS)];
+            int duration = 0;
+            for (long serviceId : bundle) {
+                duration += durations.get(serviceId);
+            }
+            if (start + duration > close || !free(occupied, start - open, duration)) {
+                continue;
+            }
+            long clientId = pickClient(bookedClients);
+            if (clientId < 0) {
+                continue;
+            }
+
+            AppointmentStatus status = status(past);
+            if (status != AppointmentStatus.CANCELLED) {
+                bookedClients.add(clientId);
+                for (int minute = start - open; minute < start - open + duration; minute++) {
+                    occupied[minute] = true;
+                }
+            }
+            LocalDateTime createdAt = date.atStartOfDay().minusDays(random.nextInt(21)).plusHours(8 + random.nextInt(12));
+            sink.appointment(++appointmentId, clientId, bundle, date, LocalTime.of(start / 60, start % 60), status, createdAt);
+        }
+        return appointmentId;
+    }
+
+    /**
+     * Intentos de reserva por slot de la grilla según el día; muchos no entran por
+     * superponerse con otros
+     */
+    private static double demand(DayOfWeek dayOfWeek) {
+        switch (dayOfWeek) {
+            case SATURDAY:
+                return 3.0;
+            case FRIDAY:
+                return 2.0;
+            case MONDAY:
+                return 1.0;
+            default:
+                return 1.5;
+        }
+    }
+
+    /**
+     * Peso relativo de un horario: pico a la salida del trabajo y los sábados a media mañana
+     */
+    private static double slotWeight(DayOfWeek dayOfWeek, int minute) {
+        int hour = minute / 60;
+        if (dayOfWeek == DayOfWeek.SATURDAY) {
+            return hour >= 10 && hour < 14 ? 3.0 : 1.5;
+        }
+        if (hour >= 17) {
+            return 3.0;
+        }
+        if (hour >= 12 && hour < 14) {
+            return 1.5;
+        }
+        return 1.0;
+    }
+
+    private AppointmentStatus status(boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 8 ? AppointmentStatus.CANCELLED : roll < 12 ? AppointmentStatus.NO_SHOW : AppointmentStatus.COMPLETED;
+        }
+        return roll < 7 ? AppointmentStatus.CANCELLED : AppointmentStatus.CONFIRMED;
+    }
+
+    /**
+     * Cliente con distribución sesgada: los primeros ids vuelven mucho más seguido que el
+     * resto. Devuelve -1 si no encuentra uno libre ese día.
+     */
+    private long pickClient(Set<Long> bookedClients) {
+        for (int i = 0; i < 10; i++) {
+            long clientId = 1 + (long) (clients * Math.pow(random.nextDouble(), 3));
+            if (!bookedClients.contains(clientId)) {
+                return clientId;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean free(boolean[] occupied, int start, int duration) {
+        for (int minute = start; minute < start + duration; minute++) {
+            if (occupied[minute]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int pick(double[] weights, double totalWeight) {
+        double roll = random.nextDouble() * totalWeight;
+        for (int i = 0; i < weights.length - 1; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private int pick(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length - 1; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        Path output = Path.of(options.getOrDefault("output", "data/snapshot.bin.gz"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200000"));
+        int days = Integer.parseInt(options.getOrDefault("days", "730"));
+        LocalDate today = LocalDate.parse(options.getOrDefault("today", LocalDate.now().toString()));
+        LocalDate from = LocalDate.parse(options.getOrDefault("from", today.minusDays(days / 2).toString()));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        long startTime = System.nanoTime();
+        long appointments;
+        try (SnapshotWriter writer = new SnapshotWriter(output)) {
+            appointments = new DatasetGenerator(loadProperties(args), clients, from, days, today, seed).generate(writer);
+        }
+        System.out.printf("%d clientes y %d reservas (%s a %s) escritos en %s en %d ms%n",
+            clients, appointments, from, from.plusDays(days - 1), output,
+            (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * Lee barberia.* de application.yml y de application-{perfil}.yml sin levantar el
+     * contexto, con la misma precedencia que la aplicación: argumentos, propiedades del
+     * sistema y variables de entorno por encima de los archivos
+     */
+    static BarberiaProperties loadProperties(String[] args) throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        MutablePropertySources sources = environment.getPropertySources();
+        sources.addFirst(new SimpleCommandLinePropertySource(args));
+        YamlPropertySourceLoader loader = new YamlPropertySourceLoader();
+        String above = null;
+        for (PropertySource<?> source : loadYaml(loader, "application.yml")) {
+            sources.addLast(source);
+            above = above == null ? source.getName() : above;
+        }
+        // Los perfiles pueden activarse en los argumentos, en el entorno o en application.yml;
+        // cada archivo de perfil queda por encima de application.yml y de los perfiles anteriores
+        for (String profile : environment.getActiveProfiles()) {
+            for (PropertySource<?> source : loadYaml(loader, "application-" + profile + ".yml")) {
+                if (above == null) {
+                    sources.addLast(source);
+                } else {
+                    sources.addBefore(above, source);
+                }
+                above = source.getName();
+            }
+        }
+        return Binder.get(environment).bind("barberia", BarberiaProperties.class).orElseGet(BarberiaProperties::new);
+    }
+
+    private static List<PropertySource<?>> loadYaml(YamlPropertySourceLoader loader, String name) throws IOException {
+        ClassPathResource resource = new ClassPathResource(name);
+        return resource.exists() ? loader.load(name, resource) : List.of();
+    }
+}
@@ -0,0 +1,23 @@
+package com.barberia.dataset;
+
+import com.barberia.model.AppointmentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Destino de los registros de un dataset: el generador los produce en este orden
+ * (servicios, clientes y reservas ordenadas por fecha), el snapshot los guarda y
+ * el loader los inserta en la base.
+ */
+public interface DatasetSink {
+
+    void service(long id, String name, String description, BigDecimal price, int durationMinutes, String iconName);
+
+    void client(long id, String firstName, String lastName, String email, String phone, LocalDateTime createdAt);
+
+    void appointment(long id, long clientId, long[] serviceIds, LocalDate date, LocalTime time,
+                     AppointmentStatus status, LocalDateTime createdAt);
+}
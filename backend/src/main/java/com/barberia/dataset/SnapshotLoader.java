@@ -0,0 +1,242 @@
+package com.barberia.dataset;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.service.AgendaVersions;
+import com.barberia.service.RollupService;
+import com.barberia.service.ServiceCatalog;
+import com.barberia.service.SlotOccupancyIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Carga al iniciar el snapshot indicado en barberia.dataset.snapshot, siempre que la
+ * base no tenga clientes ni reservas. La carga ocurre con el esquema ya creado y antes
+ * de que el servidor empiece a aceptar pedidos.
+ *
+ * Las filas se insertan con JDBC en lotes, sin pasar por JPA, desde varios hilos y con
+ * las claves foráneas deshabilitadas durante la carga; al terminar se adelantan las
+ * secuencias de ids.
+ * Las reservas confirmadas reclaman sus unidades en slot_claims igual que al reservar.
+ */
+@Component
+public class SnapshotLoader implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotLoader.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    @Autowired
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String snapshot = barberiaProperties.getDataset().getSnapshot();
+        if (snapshot == null || snapshot.isBlank()) {
+            return;
+        }
+        Long existing = jdbcTemplate.queryForObject(
+            "SELECT (SELECT COUNT(*) FROM clients) + (SELECT COUNT(*) FROM appointments)", Long.class);
+        if (existing != null && existing > 0) {
+            log.warn("La base ya tiene datos, no se carga el snapshot {}", snapshot);
+            return;
+        }
+        try {
+            load(Path.of(snapshot));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar el snapshot " + snapshot, e);
+        }
+    }
+
+    /**
+     * Inserta el contenido del snapshot; devuelve la cantidad de reservas cargadas
+     */
+    public long load(Path path) throws IOException {
+        long startTime = System.nanoTime();
+        BarberiaProperties.Dataset dataset = barberiaProperties.getDataset();
+        ExecutorService writers = Executors.newFixedThreadPool(dataset.getWriterThreads());
+        BatchingSink sink = new BatchingSink(writers, dataset.getBatchSize(),
+            barberiaProperties.getBooking().getClaimUnitMinutes());
+
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            SnapshotReader.read(path, sink);
+            sink.flush();
+            sink.awaitWrites();
+        } finally {
+            writers.shutdownNow();
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+
+        restartIdentity("services", sink.maxServiceId);
+        restartIdentity("clients", sink.maxClientId);
+        restartSequence("appointments_seq", sink.maxAppointmentId);
+        restartSequence("slot_claims_seq", sink.claimId);
+        serviceCatalog.invalidate();
+        slotOccupancyIndex.invalidateAll();
+        agendaVersions.changedAll();
+        rollupService.rebuildAll();
+
+        log.info("Snapshot {} cargado: {} clientes, {} reservas en {} ms", path, sink.clients, sink.appointments,
+            (System.nanoTime() - startTime) / 1_000_000);
+        return sink.appointments;
+    }
+
+    private void restartIdentity(String table, long maxId) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+
+    private void restartSequence(String sequence, long maxId) {
+        // Hibernate reserva bloques de 50 ids por valor de secuencia: el próximo bloque
+        // tiene que empezar después del último id cargado
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 51));
+    }
+
+    /**
+     * Acumula filas por tabla y las entrega en lotes a los hilos de escritura. Mientras
+     * se escribe un lote se sigue leyendo el siguiente, y no se entrega uno nuevo hasta
+     * que termina el anterior, así la memoria usada queda acotada.
+     */
+    private class BatchingSink implements DatasetSink {
+        private final ExecutorService writers;
+        private final int batchSize;
+        private final int claimUnitMinutes;
+
+        private final Map<Long, BigDecimal> prices = new HashMap<>();
+        private final Map<Long, Integer> durations = new HashMap<>();
+
+        private final List<Object[]> serviceRows = new ArrayList<>();
+        private final List<Object[]> clientRows = new ArrayList<>();
+        private final List<Object[]> appointmentRows = new ArrayList<>();
+        private final List<Object[]> appointmentServiceRows = new ArrayList<>();
+        private final List<Object[]> claimRows = new ArrayList<>();
+
+        private long maxServiceId;
+        private long maxClientId;
+        private long maxAppointmentId;
+        private long claimId;
+        private long clients;
+        private long appointments;
+
+        private final List<Future<?>> pendingWrites = new ArrayList<>();
+
+        BatchingSink(ExecutorService writers, int batchSize, int claimUnitMinutes) {
+            this.writers = writers;
+            this.batchSize = batchSize;
+            this.claimUnitMinutes = claimUnitMinutes;
+        }
+
+        @Override
+        public void service(long id, String name, String description, BigDecimal price, int durationMinutes, String iconName) {
+            prices.put(id, price);
+            durations.put(id, durationMinutes);
+            maxServiceId = Math.max(maxServiceId, id);
+            serviceRows.add(new Object[]{id, name, description, price, durationMinutes, iconName, true});
+        }
+
+        @Override
+        public void client(long id, String firstName, String lastName, String email, String phone, LocalDateTime createdAt) {
+            maxClientId = Math.max(maxClientId, id);
+            clients++;
+            clientRows.add(new Object[]{id, firstName, lastName, email, phone, createdAt, true});
+            if (clientRows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void appointment(long id, long clientId, long[] serviceIds, LocalDate date, LocalTime time,
+                                AppointmentStatus status, LocalDateTime createdAt) {
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            int totalDuration = 0;
+            for (long serviceId : serviceIds) {
+                totalPrice = totalPrice.add(prices.get(serviceId));
+                totalDuration += durations.get(serviceId);
+                appointmentServiceRows.add(new Object[]{id, serviceId});
+            }
+            maxAppointmentId = Math.max(maxAppointmentId, id);
+            appointments++;
+            appointmentRows.add(new Object[]{id, clientId, date, time, totalPrice, totalDuration, status.name(), createdAt});
+
+            if (status == AppointmentStatus.CONFIRMED) {
+                int start = time.getHour() * 60 + time.getMinute();
+                int end = Math.min(start + Math.max(totalDuration, 1), 24 * 60);
+                for (int unit = start / claimUnitMinutes; unit * claimUnitMinutes < end; unit++) {
+                    claimRows.add(new Object[]{++claimId, id, date, unit});
+                }
+            }
+            if (appointmentRows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            awaitWrites();
+            insert("INSERT INTO services (id, name, description, price, duration_minutes, icon_name, is_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", serviceRows);
+            insert("INSERT INTO clients (id, first_name, last_name, email, phone, created_at, is_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", clientRows);
+            insert("INSERT INTO appointments (id, client_id, appointment_date, appointment_time, total_price, " +
+                "total_duration_minutes, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", appointmentRows);
+            insert("INSERT INTO appointment_services (appointment_id, service_id) VALUES (?, ?)", appointmentServiceRows);
+            insert("INSERT INTO slot_claims (id, appointment_id, slot_date, slot_unit) VALUES (?, ?, ?, ?)", claimRows);
+        }
+
+        void awaitWrites() {
+            try {
+                for (Future<?> write : pendingWrites) {
+                    write.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Carga del snapshot interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("No se pudo cargar el snapshot", e.getCause());
+            } finally {
+                pendingWrites.clear();
+            }
+        }
+
+        private void insert(String sql, List<Object[]> rows) {
+            // Cada lote va a su propia conexión, así las tablas se escriben en paralelo
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<Object[]> batch = List.copyOf(rows.subList(from, Math.min(from + batchSize, rows.size())));
+                pendingWrites.add(writers.submit(() -> jdbcTemplate.batchUpdate(sql, batch)));
+            }
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.barberia.dataset;
+
+import com.barberia.model.AppointmentStatus;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lee un snapshot escrito por {@link SnapshotWriter} y entrega sus registros, en el
+ * mismo orden, a un {@link DatasetSink}
+ */
+public final class SnapshotReader {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private SnapshotReader() {}
+
+    public static void read(Path path, DatasetSink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path), 1 << 16), 1 << 16))) {
+            if (in.readInt() != SnapshotWriter.MAGIC || in.readInt() != SnapshotWriter.VERSION) {
+                throw new IOException("El archivo no es un snapshot válido: " + path);
+            }
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case SnapshotWriter.END:
+                        return;
+                    case SnapshotWriter.SERVICE:
+                        readService(in, sink);
+                        break;
+                    case SnapshotWriter.CLIENT:
+                        readClient(in, sink);
+                        break;
+                    case SnapshotWriter.APPOINTMENT:
+                        readAppointment(in, sink);
+                        break;
+                    default:
+                        throw new IOException("Registro desconocido en el snapshot: " + type);
+                }
+            }
+        }
+    }
+
+    private static void readService(DataInputStream in, DatasetSink sink) throws IOException {
+        long id = in.readLong();
+        String name = in.readUTF();
+        String description = in.readUTF();
+        BigDecimal price = BigDecimal.valueOf(in.readLong(), 2);
+        int durationMinutes = in.readInt();
+        String iconName = in.readUTF();
+        sink.service(id, name, description, price, durationMinutes, iconName.isEmpty() ? null : iconName);
+    }
+
+    private static void readClient(DataInputStream in, DatasetSink sink) throws IOException {
+        long id = in.readLong();
+        String firstName = in.readUTF();
+        String lastName = in.readUTF();
+        String email = in.readUTF();
+        String phone = in.readUTF();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+        sink.client(id, firstName, lastName, email, phone, createdAt);
+    }
+
+    private static void readAppointment(DataInputStream in, DatasetSink sink) throws IOException {
+        long id = in.readLong();
+        long clientId = in.readLong();
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        int minute = in.readShort();
+        AppointmentStatus status = STATUSES[in.readByte()];
+        long[] serviceIds = new long[in.readByte()];
+        for (int i = 0; i < serviceIds.length; i++) {
+            serviceIds[i] = in.readLong();
+        }
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+        sink.appointment(id, clientId, serviceIds, date, LocalTime.of(minute / 60, minute % 60), status, createdAt);
+    }
+}
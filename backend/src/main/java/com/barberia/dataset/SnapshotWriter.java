@@ -0,0 +1,102 @@
+package com.barberia.dataset;
+
+import com.barberia.model.AppointmentStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe un dataset en formato snapshot: un stream binario comprimido con gzip con un
+ * registro por servicio, cliente y reserva. El precio y la duración total de cada
+ * reserva no se guardan, se recalculan a partir de los servicios al cargar.
+ */
+public class SnapshotWriter implements DatasetSink, Closeable {
+
+    static final int MAGIC = 0x42524253; // "BRBS"
+
+    static final int VERSION = 1;
+
+    static final byte END = 0;
+    static final byte SERVICE = 1;
+    static final byte CLIENT = 2;
+    static final byte APPOINTMENT = 3;
+
+    private final DataOutputStream out;
+
+    public SnapshotWriter(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path), 1 << 16), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    @Override
+    public void service(long id, String name, String description, BigDecimal price, int durationMinutes, String iconName) {
+        try {
+            out.writeByte(SERVICE);
+            out.writeLong(id);
+            out.writeUTF(name);
+            out.writeUTF(description);
+            out.writeLong(price.movePointRight(2).longValueExact());
+            out.writeInt(durationMinutes);
+            out.writeUTF(iconName == null ? "" : iconName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void client(long id, String firstName, String lastName, String email, String phone, LocalDateTime createdAt) {
+        try {
+            out.writeByte(CLIENT);
+            out.writeLong(id);
+            out.writeUTF(firstName);
+            out.writeUTF(lastName);
+            out.writeUTF(email);
+            out.writeUTF(phone);
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void appointment(long id, long clientId, long[] serviceIds, LocalDate date, LocalTime time,
+                            AppointmentStatus status, LocalDateTime createdAt) {
+        try {
+            out.writeByte(APPOINTMENT);
+            out.writeLong(id);
+            out.writeLong(clientId);
+            out.writeInt((int) date.toEpochDay());
+            out.writeShort(time.getHour() * 60 + time.getMinute());
+            out.writeByte(status.ordinal());
+            out.writeByte(serviceIds.length);
+            for (long serviceId : serviceIds) {
+                out.writeLong(serviceId);
+            }
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeByte(END);
+        out.close();
+    }
+}
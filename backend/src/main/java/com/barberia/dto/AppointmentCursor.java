@@ -0,0 +1,59 @@
+package com.barberia.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Posición de una reserva en el orden (fecha, hora, id), usada como token de
+ * continuación opaco en los listados paginados
+ */
+public class AppointmentCursor {
+    private final LocalDate date;
+    private final LocalTime time;
+    private final Long id;
+
+    public AppointmentCursor(LocalDate date, LocalTime time, Long id) {
+        this.date = date;
+        this.time = time;
+        this.id = id;
+    }
+
+    /**
+     * Cursor anterior a cualquier reserva del día indicado
+     */
+    public static AppointmentCursor startOf(LocalDate date) {
+        return new AppointmentCursor(date, LocalTime.MIDNIGHT, 0L);
+    }
+
+    public static AppointmentCursor after(AppointmentDto appointment) {
+        return new AppointmentCursor(appointment.getAppointmentDate(), appointment.getAppointmentTime(), appointment.getId());
+    }
+
+    public static AppointmentCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new AppointmentCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    public String encode() {
+        String raw = date + "|" + time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
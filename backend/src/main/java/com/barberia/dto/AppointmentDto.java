@@ -0,0 +1,143 @@
+package com.barberia.dto;
+
+import com.barberia.model.Appointment;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.Client;
+import com.barberia.model.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppointmentDto {
+    private Long id;
+    private ClientDto client;
+    private List<ServiceDto> services = new ArrayList<>();
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+    private BigDecimal totalPrice;
+    private Integer totalDurationMinutes;
+    private AppointmentStatus status;
+    private LocalDateTime createdAt;
+    private String notes;
+
+    // Constructors
+    public AppointmentDto() {}
+
+    /**
+     * Constructor usado por las consultas JPQL con "SELECT new"
+     */
+    public AppointmentDto(Long id, Long clientId, String clientFirstName, String clientLastName,
+                          String clientEmail, String clientPhone, LocalDateTime clientCreatedAt,
+                          LocalDate appointmentDate, LocalTime appointmentTime, BigDecimal totalPrice,
+                          Integer totalDurationMinutes, AppointmentStatus status,
+                          LocalDateTime createdAt, String notes) {
+        this.id = id;
+        this.client = new ClientDto(clientId, clientFirstName, clientLastName, clientEmail, clientPhone, clientCreatedAt);
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+        this.totalPrice = totalPrice;
+        this.totalDurationMinutes = totalDurationMinutes;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.notes = notes;
+    }
+
+    public static AppointmentDto from(Appointment appointment) {
+        Client client = appointment.getClient();
+        AppointmentDto dto = new AppointmentDto(appointment.getId(), client.getId(), client.getFirstName(),
+            client.getLastName(), client.getEmail(), client.getPhone(), client.getCreatedAt(),
+            appointment.getAppointmentDate(), appointment.getAppointmentTime(), appointment.getTotalPrice(),
+            appointment.getTotalDurationMinutes(), appointment.getStatus(), appointment.getCreatedAt(),
+            appointment.getNotes());
+        for (Service service : appointment.getServices()) {
+            dto.services.add(new ServiceDto(service.getId(), service.getName(), service.getDescription(),
+                service.getPrice(), service.getDurationMinutes(), service.getIconName()));
+        }
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ClientDto getClient() {
+        return client;
+    }
+
+    public void setClient(ClientDto client) {
+        this.client = client;
+    }
+
+    public List<ServiceDto> getServices() {
+        return services;
+    }
+
+    public void setServices(List<ServiceDto> services) {
+        this.services = services;
+    }
+
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public void setAppointmentDate(LocalDate appointmentDate) {
+        this.appointmentDate = appointmentDate;
+    }
+
+    public LocalTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public void setAppointmentTime(LocalTime appointmentTime) {
+        this.appointmentTime = appointmentTime;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public Integer getTotalDurationMinutes() {
+        return totalDurationMinutes;
+    }
+
+    public void setTotalDurationMinutes(Integer totalDurationMinutes) {
+        this.totalDurationMinutes = totalDurationMinutes;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,86 @@
+package com.barberia.dto;
+
+import com.barberia.model.AppointmentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Fila plana (reserva, cliente, servicio) leída por el export en streaming. Una reserva
+ * con varios servicios ocupa varias filas consecutivas con el mismo appointmentId.
+ */
+public class AppointmentExportRow {
+    private final Long appointmentId;
+    private final LocalDate appointmentDate;
+    private final LocalTime appointmentTime;
+    private final AppointmentStatus status;
+    private final BigDecimal totalPrice;
+    private final Integer totalDurationMinutes;
+    private final Long clientId;
+    private final String clientName;
+    private final String clientEmail;
+    private final Long serviceId;
+    private final String serviceName;
+
+    public AppointmentExportRow(Long appointmentId, LocalDate appointmentDate, LocalTime appointmentTime,
+                                AppointmentStatus status, BigDecimal totalPrice, Integer totalDurationMinutes,
+                                Long clientId, String clientFirstName, String clientLastName, String clientEmail,
+                                Long serviceId, String serviceName) {
+        this.appointmentId = appointmentId;
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+        this.status = status;
+        this.totalPrice = totalPrice;
+        this.totalDurationMinutes = totalDurationMinutes;
+        this.clientId = clientId;
+        this.clientName = clientFirstName + " " + clientLastName;
+        this.clientEmail = clientEmail;
+        this.serviceId = serviceId;
+        this.serviceName = serviceName;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public LocalTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public Integer getTotalDurationMinutes() {
+        return totalDurationMinutes;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+}
@@ -0,0 +1,78 @@
+package com.barberia.dto;
+
+import com.barberia.model.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class AppointmentImportRequest {
+    private Long clientId;
+    private List<Long> serviceIds;
+    private LocalDate date;
+    private LocalTime time;
+    private AppointmentStatus status = AppointmentStatus.CONFIRMED;
+    private String notes;
+
+    // Constructors
+    public AppointmentImportRequest() {}
+
+    public AppointmentImportRequest(Long clientId, List<Long> serviceIds, LocalDate date, LocalTime time,
+                                    AppointmentStatus status, String notes) {
+        this.clientId = clientId;
+        this.serviceIds = serviceIds;
+        this.date = date;
+        this.time = time;
+        this.status = status;
+        this.notes = notes;
+    }
+
+    // Getters and Setters
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public List<Long> getServiceIds() {
+        return serviceIds;
+    }
+
+    public void setServiceIds(List<Long> serviceIds) {
+        this.serviceIds = serviceIds;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public void setTime(LocalTime time) {
+        this.time = time;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
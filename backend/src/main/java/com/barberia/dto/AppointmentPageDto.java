@@ -0,0 +1,33 @@
+package com.barberia.dto;
+
+import java.util.List;
+
+public class AppointmentPageDto {
+    private List<AppointmentDto> items;
+    private String nextCursor;
+
+    // Constructors
+    public AppointmentPageDto() {}
+
+    public AppointmentPageDto(List<AppointmentDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<AppointmentDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<AppointmentDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
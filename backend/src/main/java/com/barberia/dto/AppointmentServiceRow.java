@@ -0,0 +1,38 @@
+package com.barberia.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila de la relación reserva-servicio, usada para completar los servicios de varios
+ * AppointmentDto con una sola consulta
+ */
+public class AppointmentServiceRow {
+    private Long appointmentId;
+    private ServiceDto service;
+
+    // Constructors
+    public AppointmentServiceRow() {}
+
+    public AppointmentServiceRow(Long appointmentId, Long serviceId, String name, String description,
+                                 BigDecimal price, Integer durationMinutes, String iconName) {
+        this.appointmentId = appointmentId;
+        this.service = new ServiceDto(serviceId, name, description, price, durationMinutes, iconName);
+    }
+
+    // Getters and Setters
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public ServiceDto getService() {
+        return service;
+    }
+
+    public void setService(ServiceDto service) {
+        this.service = service;
+    }
+}
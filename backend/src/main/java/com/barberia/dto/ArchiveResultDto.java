@@ -0,0 +1,49 @@
+package com.barberia.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Resultado de un archivado: reservas movidas a las tablas de archivo y tiempo empleado
+ */
+public class ArchiveResultDto {
+    private LocalDate cutoffDate; // se archivaron las reservas finalizadas anteriores a esta fecha
+    private long appointments;
+    private int batches;
+    private long elapsedMillis;
+
+    // Constructors
+    public ArchiveResultDto() {}
+
+    // Getters and Setters
+    public LocalDate getCutoffDate() {
+        return cutoffDate;
+    }
+
+    public void setCutoffDate(LocalDate cutoffDate) {
+        this.cutoffDate = cutoffDate;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public void setBatches(int batches) {
+        this.batches = batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
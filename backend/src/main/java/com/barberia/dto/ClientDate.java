@@ -0,0 +1,42 @@
+package com.barberia.dto;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Par (cliente, fecha) con reserva, para validar en memoria la regla de una reserva por día
+ */
+public class ClientDate {
+    private final Long clientId;
+    private final LocalDate date;
+
+    public ClientDate(Long clientId, LocalDate date) {
+        this.clientId = clientId;
+        this.date = date;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClientDate)) {
+            return false;
+        }
+        ClientDate other = (ClientDate) o;
+        return clientId.equals(other.clientId) && date.equals(other.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientId, date);
+    }
+}
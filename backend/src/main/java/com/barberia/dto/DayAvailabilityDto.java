@@ -0,0 +1,44 @@
+package com.barberia.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class DayAvailabilityDto {
+    private LocalDate date;
+    private boolean open;
+    private List<TimeSlotDto> slots;
+
+    // Constructors
+    public DayAvailabilityDto() {}
+
+    public DayAvailabilityDto(LocalDate date, boolean open, List<TimeSlotDto> slots) {
+        this.date = date;
+        this.open = open;
+        this.slots = slots;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+
+    public List<TimeSlotDto> getSlots() {
+        return slots;
+    }
+
+    public void setSlots(List<TimeSlotDto> slots) {
+        this.slots = slots;
+    }
+}
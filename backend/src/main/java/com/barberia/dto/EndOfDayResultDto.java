@@ -0,0 +1,69 @@
+package com.barberia.dto;
+
+import com.barberia.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado del cierre de reservas vencidas: cuántas cambiaron de estado y en cuánto tiempo
+ */
+public class EndOfDayResultDto {
+    private LocalDateTime cutoff; // se cerraron las reservas terminadas hasta este momento
+    private AppointmentStatus status;
+    private int days;
+    private long appointments;
+    private long releasedClaims;
+    private long elapsedMillis;
+
+    // Constructors
+    public EndOfDayResultDto() {}
+
+    // Getters and Setters
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(LocalDateTime cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+
+    public long getReleasedClaims() {
+        return releasedClaims;
+    }
+
+    public void setReleasedClaims(long releasedClaims) {
+        this.releasedClaims = releasedClaims;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,31 @@
+package com.barberia.dto;
+
+public class ImportFailureDto {
+    private int row;
+    private String reason;
+
+    // Constructors
+    public ImportFailureDto() {}
+
+    public ImportFailureDto(int row, String reason) {
+        this.row = row;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,51 @@
+package com.barberia.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResultDto {
+    private int received;
+    private int imported;
+    private long elapsedMillis;
+    private List<ImportFailureDto> failures = new ArrayList<>();
+
+    // Constructors
+    public ImportResultDto() {}
+
+    public ImportResultDto(int received) {
+        this.received = received;
+    }
+
+    // Getters and Setters
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<ImportFailureDto> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<ImportFailureDto> failures) {
+        this.failures = failures;
+    }
+}
@@ -0,0 +1,44 @@
+package com.barberia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class OccupiedSlot {
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+    private Integer totalDurationMinutes;
+
+    // Constructors
+    public OccupiedSlot() {}
+
+    public OccupiedSlot(LocalDate appointmentDate, LocalTime appointmentTime, Integer totalDurationMinutes) {
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+        this.totalDurationMinutes = totalDurationMinutes;
+    }
+
+    // Getters and Setters
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public void setAppointmentDate(LocalDate appointmentDate) {
+        this.appointmentDate = appointmentDate;
+    }
+
+    public LocalTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public void setAppointmentTime(LocalTime appointmentTime) {
+        this.appointmentTime = appointmentTime;
+    }
+
+    public Integer getTotalDurationMinutes() {
+        return totalDurationMinutes;
+    }
+
+    public void setTotalDurationMinutes(Integer totalDurationMinutes) {
+        this.totalDurationMinutes = totalDurationMinutes;
+    }
+}
@@ -0,0 +1,54 @@
+package com.barberia.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una serie recurrente: las reservas creadas y las fechas que chocaron
+ */
+public class RecurringSeriesResultDto {
+    private int occurrences; // fechas generadas por la regla
+    private List<AppointmentDto> created = new ArrayList<>();
+    private List<SeriesConflictDto> conflicts = new ArrayList<>();
+    private long elapsedMillis;
+
+    // Constructors
+    public RecurringSeriesResultDto() {}
+
+    public RecurringSeriesResultDto(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    // Getters and Setters
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public List<AppointmentDto> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<AppointmentDto> created) {
+        this.created = created;
+    }
+
+    public List<SeriesConflictDto> getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(List<SeriesConflictDto> conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
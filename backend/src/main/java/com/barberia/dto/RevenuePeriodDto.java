@@ -0,0 +1,113 @@
+package com.barberia.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ingresos y ocupación de un período (día, semana o mes), calculados desde los rollups
+ */
+public class RevenuePeriodDto {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long completedAppointments;
+    private long confirmedAppointments;
+    private long cancelledAppointments;
+    private long noShowAppointments;
+    private BigDecimal revenue; // reservas completadas
+    private BigDecimal pendingRevenue; // reservas confirmadas que todavía no se completaron
+    private long bookedMinutes; // confirmadas, completadas y ausentes: el sillón estuvo reservado
+    private long openMinutes;
+    private double utilization; // bookedMinutes / openMinutes
+
+    // Constructors
+    public RevenuePeriodDto() {}
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getCompletedAppointments() {
+        return completedAppointments;
+    }
+
+    public void setCompletedAppointments(long completedAppointments) {
+        this.completedAppointments = completedAppointments;
+    }
+
+    public long getConfirmedAppointments() {
+        return confirmedAppointments;
+    }
+
+    public void setConfirmedAppointments(long confirmedAppointments) {
+        this.confirmedAppointments = confirmedAppointments;
+    }
+
+    public long getCancelledAppointments() {
+        return cancelledAppointments;
+    }
+
+    public void setCancelledAppointments(long cancelledAppointments) {
+        this.cancelledAppointments = cancelledAppointments;
+    }
+
+    public long getNoShowAppointments() {
+        return noShowAppointments;
+    }
+
+    public void setNoShowAppointments(long noShowAppointments) {
+        this.noShowAppointments = noShowAppointments;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getPendingRevenue() {
+        return pendingRevenue;
+    }
+
+    public void setPendingRevenue(BigDecimal pendingRevenue) {
+        this.pendingRevenue = pendingRevenue;
+    }
+
+    public long getBookedMinutes() {
+        return bookedMinutes;
+    }
+
+    public void setBookedMinutes(long bookedMinutes) {
+        this.bookedMinutes = bookedMinutes;
+    }
+
+    public long getOpenMinutes() {
+        return openMinutes;
+    }
+
+    public void setOpenMinutes(long openMinutes) {
+        this.openMinutes = openMinutes;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(double utilization) {
+        this.utilization = utilization;
+    }
+}
@@ -0,0 +1,36 @@
+package com.barberia.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Fecha de una serie recurrente que no se pudo reservar y el motivo
+ */
+public class SeriesConflictDto {
+    private LocalDate date;
+    private String reason;
+
+    // Constructors
+    public SeriesConflictDto() {}
+
+    public SeriesConflictDto(LocalDate date, String reason) {
+        this.date = date;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
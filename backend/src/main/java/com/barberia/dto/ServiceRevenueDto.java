@@ -0,0 +1,86 @@
+package com.barberia.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Reservas e ingresos de un servicio en un rango de fechas, calculados desde los rollups
+ */
+public class ServiceRevenueDto {
+    private Long serviceId;
+    private String name;
+    private Long completedAppointments;
+    private Long confirmedAppointments;
+    private BigDecimal revenue;
+    private BigDecimal pendingRevenue;
+    private Long minutes;
+
+    // Constructors
+    public ServiceRevenueDto() {}
+
+    public ServiceRevenueDto(Long serviceId, String name, Long completedAppointments, Long confirmedAppointments, BigDecimal revenue, BigDecimal pendingRevenue, Long minutes) {
+        this.serviceId = serviceId;
+        this.name = name;
+        this.completedAppointments = completedAppointments;
+        this.confirmedAppointments = confirmedAppointments;
+        this.revenue = revenue;
+        this.pendingRevenue = pendingRevenue;
+        this.minutes = minutes;
+    }
+
+    // Getters and Setters
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(Long serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getCompletedAppointments() {
+        return completedAppointments;
+    }
+
+    public void setCompletedAppointments(Long completedAppointments) {
+        this.completedAppointments = completedAppointments;
+    }
+
+    public Long getConfirmedAppointments() {
+        return confirmedAppointments;
+    }
+
+    public void setConfirmedAppointments(Long confirmedAppointments) {
+        this.confirmedAppointments = confirmedAppointments;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getPendingRevenue() {
+        return pendingRevenue;
+    }
+
+    public void setPendingRevenue(BigDecimal pendingRevenue) {
+        this.pendingRevenue = pendingRevenue;
+    }
+
+    public Long getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(Long minutes) {
+        this.minutes = minutes;
+    }
+}
@@ -0,0 +1,47 @@
+package com.barberia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Horario que se ocupó o se liberó, tal como se envía a los suscriptores de eventos
+ */
+public class SlotEventDto {
+    private LocalDate date;
+    private LocalTime time;
+    private Integer durationMinutes;
+
+    // Constructors
+    public SlotEventDto() {}
+
+    public SlotEventDto(LocalDate date, LocalTime time, Integer durationMinutes) {
+        this.date = date;
+        this.time = time;
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public void setTime(LocalTime time) {
+        this.time = time;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.barberia.dto;
+
+import java.time.LocalTime;
+
+public class TimeSlotDto {
+    private LocalTime time;
+    private boolean available;
+
+    // Constructors
+    public TimeSlotDto() {}
+
+    public TimeSlotDto(LocalTime time, boolean available) {
+        this.time = time;
+        this.available = available;
+    }
+
+    // Getters and Setters
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public void setTime(LocalTime time) {
+        this.time = time;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+}
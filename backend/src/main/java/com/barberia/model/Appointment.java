@@ -10,11 +10,15 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "appointments")
+@Table(
+    name = "appointments",
+    indexes = @Index(name = "idx_appointments_status_date_time", columnList = "status, appointment_date, appointment_time, id")
+)
 public class Appointment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,7 +26,7 @@ public class Appointment {
     @NotNull(message = "El cliente es obligatorio")
     private Client client;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "appointment_services",
         joinColumns = @JoinColumn(name = "appointment_id"),
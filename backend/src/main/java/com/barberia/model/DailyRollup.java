@@ -0,0 +1,119 @@
+package com.barberia.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Totales de las reservas de un día en un estado: cantidad, importe y minutos.
+ *
+ * Se mantienen en la misma transacción que cada alta o cambio de estado de una reserva
+ * (ver RollupService), así los reportes no tienen que recorrer la tabla appointments.
+ */
+@Entity
+@Table(name = "daily_rollups")
+@IdClass(DailyRollup.Key.class)
+public class DailyRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private AppointmentStatus status;
+
+    @Column(nullable = false)
+    private long appointments;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long minutes;
+
+    // Constructors
+    public DailyRollup() {}
+
+    // Getters and Setters
+    public LocalDate getRollupDate() {
+        return rollupDate;
+    }
+
+    public void setRollupDate(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(long minutes) {
+        this.minutes = minutes;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate rollupDate;
+        private AppointmentStatus status;
+
+        public Key() {}
+
+        public Key(LocalDate rollupDate, AppointmentStatus status) {
+            this.rollupDate = rollupDate;
+            this.status = status;
+        }
+
+        public LocalDate getRollupDate() {
+            return rollupDate;
+        }
+
+        public AppointmentStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(rollupDate, key.rollupDate) && status == key.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rollupDate, status);
+        }
+    }
+}
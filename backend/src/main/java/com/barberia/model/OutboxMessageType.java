@@ -0,0 +1,17 @@
+package com.barberia.model;
+
+public enum OutboxMessageType {
+    BOOKING_CONFIRMED("Confirmación de reserva"),
+    BOOKING_CANCELLED("Cancelación de reserva"),
+    BOOKING_REMINDER("Recordatorio de reserva");
+
+    private final String displayName;
+
+    OutboxMessageType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
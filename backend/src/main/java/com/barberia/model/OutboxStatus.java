@@ -0,0 +1,18 @@
+package com.barberia.model;
+
+public enum OutboxStatus {
+    PENDING("Pendiente"),
+    DELIVERED("Entregado"),
+    FAILED("Fallido"),
+    DISCARDED("Descartado");
+
+    private final String displayName;
+
+    OutboxStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
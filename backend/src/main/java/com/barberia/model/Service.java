@@ -1,5 +1,6 @@
 package com.barberia.model;
 
+import com.barberia.config.ServiceCatalogListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,7 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "services")
+@EntityListeners(ServiceCatalogListener.class)
 public class Service {
 
     @Id
@@ -0,0 +1,136 @@
+package com.barberia.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Totales de un servicio en las reservas de un día en un estado: cantidad, importe
+ * (precio del servicio) y minutos. Se mantienen igual que {@link DailyRollup}.
+ */
+@Entity
+@Table(name = "service_rollups")
+@IdClass(ServiceRollup.Key.class)
+public class ServiceRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Id
+    @Column(name = "service_id")
+    private Long serviceId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private AppointmentStatus status;
+
+    @Column(nullable = false)
+    private long appointments;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long minutes;
+
+    // Constructors
+    public ServiceRollup() {}
+
+    // Getters and Setters
+    public LocalDate getRollupDate() {
+        return rollupDate;
+    }
+
+    public void setRollupDate(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(Long serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(long minutes) {
+        this.minutes = minutes;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate rollupDate;
+        private Long serviceId;
+        private AppointmentStatus status;
+
+        public Key() {}
+
+        public Key(LocalDate rollupDate, Long serviceId, AppointmentStatus status) {
+            this.rollupDate = rollupDate;
+            this.serviceId = serviceId;
+            this.status = status;
+        }
+
+        public LocalDate getRollupDate() {
+            return rollupDate;
+        }
+
+        public Long getServiceId() {
+            return serviceId;
+        }
+
+        public AppointmentStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(rollupDate, key.rollupDate) && Objects.equals(serviceId, key.serviceId)
+                && status == key.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rollupDate, serviceId, status);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.barberia.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Unidad de tiempo ocupada por una reserva confirmada.
+ *
+ * La restricción única sobre (slot_date, slot_unit) hace que la base de datos rechace
+ * dos reservas superpuestas aunque se creen desde instancias distintas del backend.
+ */
+@Entity
+@Table(
+    name = "slot_claims",
+    uniqueConstraints = @UniqueConstraint(name = "uk_slot_claims_date_unit", columnNames = {"slot_date", "slot_unit"}),
+    indexes = @Index(name = "idx_slot_claims_appointment", columnList = "appointment_id")
+)
+public class SlotClaim {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slot_claims_seq")
+    @SequenceGenerator(name = "slot_claims_seq", sequenceName = "slot_claims_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+
+    @Column(name = "slot_unit", nullable = false)
+    private Integer slotUnit;
+
+    // Constructors
+    public SlotClaim() {}
+
+    public SlotClaim(Long appointmentId, LocalDate slotDate, Integer slotUnit) {
+        this.appointmentId = appointmentId;
+        this.slotDate = slotDate;
+        this.slotUnit = slotUnit;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public LocalDate getSlotDate() {
+        return slotDate;
+    }
+
+    public void setSlotDate(LocalDate slotDate) {
+        this.slotDate = slotDate;
+    }
+
+    public Integer getSlotUnit() {
+        return slotUnit;
+    }
+
+    public void setSlotUnit(Integer slotUnit) {
+        this.slotUnit = slotUnit;
+    }
+}
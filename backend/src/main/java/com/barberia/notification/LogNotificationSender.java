@@ -0,0 +1,52 @@
+package com.barberia.notification;
+
+import com.barberia.config.BarberiaProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envío de prueba: escribe cada notificación en el log y, si barberia.outbox.file está
+ * configurado, la agrega como una línea JSON a ese archivo.
+ */
+@Component
+@ConditionalOnProperty(name = "barberia.outbox.sender", havingValue = "log", matchIfMissing = true)
+public class LogNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LogNotificationSender.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    public LogNotificationSender(ObjectMapper objectMapper, BarberiaProperties barberiaProperties) {
+        this.objectMapper = objectMapper;
+        String file = barberiaProperties.getOutbox().getFile();
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    @Override
+    public Map<Long, String> send(List<Notification> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Notification notification : batch) {
+            log.info("Notificación {} {} para {}: {}", notification.getId(), notification.getType(),
+                notification.getRecipient(), notification.getPayload());
+            lines.append(objectMapper.writeValueAsString(notification)).append('\n');
+        }
+        if (file != null) {
+            // Una sola escritura por lote
+            Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return Map.of();
+    }
+}
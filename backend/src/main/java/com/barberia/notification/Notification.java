@@ -0,0 +1,66 @@
+package com.barberia.notification;
+
+import com.barberia.model.OutboxMessageType;
+
+/**
+ * Notificación tal como la recibe un NotificationSender
+ */
+public class Notification {
+    private Long id;
+    private OutboxMessageType type;
+    private String recipient;
+    private String payload; // JSON con los datos de la reserva
+    private int attempts; // intentos fallidos anteriores
+
+    // Constructors
+    public Notification() {}
+
+    public Notification(Long id, OutboxMessageType type, String recipient, String payload, int attempts) {
+        this.id = id;
+        this.type = type;
+        this.recipient = recipient;
+        this.payload = payload;
+        this.attempts = attempts;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OutboxMessageType getType() {
+        return type;
+    }
+
+    public void setType(OutboxMessageType type) {
+        this.type = type;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -0,0 +1,21 @@
+package com.barberia.notification;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canal por el que OutboxDispatcher entrega las notificaciones (correo, SMS, etc.).
+ *
+ * Se elige con barberia.outbox.sender: cada implementación se registra como bean
+ * condicionado a su valor, como LogNotificationSender con "log".
+ */
+public interface NotificationSender {
+
+    /**
+     * Envía un lote de notificaciones. Devuelve el motivo de cada una que no se pudo
+     * enviar, por id; las demás se dan por entregadas. Si lanza una excepción se
+     * reintenta el lote completo.
+     */
+    Map<Long, String> send(List<Notification> batch) throws IOException;
+}
@@ -1,46 +1,186 @@
 package com.barberia.repository;
 
+import com.barberia.dto.AppointmentDto;
+import com.barberia.dto.AppointmentExportRow;
+import com.barberia.dto.AppointmentServiceRow;
+import com.barberia.dto.ClientDate;
+import com.barberia.dto.OccupiedSlot;
 import com.barberia.model.Appointment;
 import com.barberia.model.AppointmentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Reservas vivas. Las finalizadas con más antigüedad que barberia.archive.max-age se
+ * mueven a appointments_archive (ver ArchiveService), así que estas consultas no las ven.
+ */
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     
-    List<Appointment> findByAppointmentDateAndStatus(LocalDate date, AppointmentStatus status);
+    /**
+     * Proyección de una reserva y su cliente en AppointmentDto, sin cargar entidades
+     */
+    String APPOINTMENT_DTO_SELECT = "SELECT new com.barberia.dto.AppointmentDto(" +
+           "a.id, c.id, c.firstName, c.lastName, c.email, c.phone, c.createdAt, " +
+           "a.appointmentDate, a.appointmentTime, a.totalPrice, a.totalDurationMinutes, " +
+           "a.status, a.createdAt, a.notes) " +
+           "FROM Appointment a JOIN a.client c ";
     
-    List<Appointment> findByClientIdAndStatus(Long clientId, AppointmentStatus status);
-    
-    @Query("SELECT a FROM Appointment a WHERE a.appointmentDate = :date " +
+    @Query(APPOINTMENT_DTO_SELECT +
+           "WHERE a.appointmentDate = :date " +
            "AND a.status = :status " +
-           "AND ((a.appointmentTime >= :startTime AND a.appointmentTime < :endTime) " +
-           "OR (a.appointmentTime + INTERVAL a.totalDurationMinutes MINUTE > :startTime " +
-           "AND a.appointmentTime < :endTime))")
-    List<Appointment> findConflictingAppointments(
+           "ORDER BY a.appointmentTime, a.id")
+    List<AppointmentDto> findByAppointmentDateAndStatus(
         @Param("date") LocalDate date,
-        @Param("startTime") LocalTime startTime,
-        @Param("endTime") LocalTime endTime,
         @Param("status") AppointmentStatus status
     );
     
-    @Query("SELECT a FROM Appointment a WHERE a.appointmentDate >= :startDate " +
+    @Query(APPOINTMENT_DTO_SELECT +
+           "WHERE c.id = :clientId " +
+           "AND a.status = :status " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentDto> findByClientIdAndStatus(
+        @Param("clientId") Long clientId,
+        @Param("status") AppointmentStatus status
+    );
+    
+    /**
+     * Todas las reservas del cliente que siguen en appointments, en cualquier estado;
+     * las archivadas están en ArchivedAppointmentRepository
+     */
+    @Query(APPOINTMENT_DTO_SELECT +
+           "WHERE c.id = :clientId " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentDto> findAllByClientId(@Param("clientId") Long clientId);
+    
+    @Query(APPOINTMENT_DTO_SELECT +
+           "WHERE a.appointmentDate >= :startDate " +
            "AND a.appointmentDate <= :endDate " +
            "AND a.status = :status " +
-           "ORDER BY a.appointmentDate, a.appointmentTime")
-    List<Appointment> findAppointmentsInDateRange(
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentDto> findAppointmentsInDateRange(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("status") AppointmentStatus status
+    );
+    
+    /**
+     * Condición de keyset: reservas posteriores al cursor en el orden (fecha, hora, id).
+     * La cota a.appointmentDate >= :date es redundante, pero sin ella el OR no deja usar
+     * el índice por fecha y cada página recorre la tabla desde el principio
+     */
+    String AFTER_CURSOR = "a.appointmentDate >= :date AND (a.appointmentDate > :date " +
+           "OR (a.appointmentDate = :date AND (a.appointmentTime > :time " +
+           "OR (a.appointmentTime = :time AND a.id > :id)))) ";
+    
+    @Query(APPOINTMENT_DTO_SELECT +
+           "WHERE a.status = :status " +
+           "AND " + AFTER_CURSOR +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentDto> findPageAfter(
+        @Param("status") AppointmentStatus status,
+        @Param("date") LocalDate date,
+        @Param("time") LocalTime time,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
+    @Query(APPOINTMENT_DTO_SELECT +
+           "WHERE a.status = :status " +
+           "AND a.appointmentDate >= :startDate " +
+           "AND a.appointmentDate <= :endDate " +
+           "AND " + AFTER_CURSOR +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentDto> findPageInDateRangeAfter(
+        @Param("status") AppointmentStatus status,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("date") LocalDate date,
+        @Param("time") LocalTime time,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
+    /**
+     * Recorre las reservas del rango sin materializarlas en una lista; debe consumirse
+     * dentro de una transacción y cerrarse al terminar
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.barberia.dto.AppointmentExportRow(" +
+           "a.id, a.appointmentDate, a.appointmentTime, a.status, a.totalPrice, a.totalDurationMinutes, " +
+           "c.id, c.firstName, c.lastName, c.email, s.id, s.name) " +
+           "FROM Appointment a JOIN a.client c LEFT JOIN a.services s " +
+           "WHERE a.appointmentDate >= :startDate " +
+           "AND a.appointmentDate <= :endDate " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    Stream<AppointmentExportRow> streamForExport(
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate,
         @Param("status") AppointmentStatus status
     );
     
-    List<Appointment> findByStatusOrderByAppointmentDateAscAppointmentTimeAsc(AppointmentStatus status);
+    @Query("SELECT new com.barberia.dto.AppointmentServiceRow(" +
+           "a.id, s.id, s.name, s.description, s.price, s.durationMinutes, s.iconName) " +
+           "FROM Appointment a JOIN a.services s WHERE a.id IN :appointmentIds " +
+           "ORDER BY a.id, s.id")
+    List<AppointmentServiceRow> findServiceRows(@Param("appointmentIds") Collection<Long> appointmentIds);
+    
+    @Query("SELECT new com.barberia.dto.OccupiedSlot(a.appointmentDate, a.appointmentTime, a.totalDurationMinutes) " +
+           "FROM Appointment a WHERE a.appointmentDate = :date " +
+           "AND a.status = :status")
+    List<OccupiedSlot> findOccupiedSlots(
+        @Param("date") LocalDate date,
+        @Param("status") AppointmentStatus status
+    );
+    
+    @Query("SELECT new com.barberia.dto.OccupiedSlot(a.appointmentDate, a.appointmentTime, a.totalDurationMinutes) " +
+           "FROM Appointment a WHERE a.appointmentDate >= :startDate " +
+           "AND a.appointmentDate <= :endDate " +
+           "AND a.status = :status")
+    List<OccupiedSlot> findOccupiedSlotsInDateRange(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("status") AppointmentStatus status
+    );
+    
+    @Query("SELECT new com.barberia.dto.ClientDate(a.client.id, a.appointmentDate) " +
+           "FROM Appointment a WHERE a.appointmentDate >= :startDate " +
+           "AND a.appointmentDate <= :endDate " +
+           "AND a.status IN ('CONFIRMED', 'COMPLETED')")
+    List<ClientDate> findBookedClientDates(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+    
+    @Query("SELECT DISTINCT a.appointmentDate FROM Appointment a WHERE a.client.id = :clientId " +
+           "AND a.appointmentDate >= :startDate " +
+           "AND a.appointmentDate <= :endDate " +
+           "AND a.status IN ('CONFIRMED', 'COMPLETED')")
+    List<LocalDate> findBookedDatesByClient(
+        @Param("clientId") Long clientId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+    
+    @Query("SELECT a.appointmentDate FROM Appointment a WHERE a.id = :id")
+    Optional<LocalDate> findDateById(@Param("id") Long id);
     
     @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.client.id = :clientId " +
            "AND a.appointmentDate = :date " +
@@ -0,0 +1,60 @@
+package com.barberia.repository;
+
+import com.barberia.dto.AppointmentDto;
+import com.barberia.dto.AppointmentServiceRow;
+import com.barberia.dto.AppointmentExportRow;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.ArchivedAppointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+    
+    @Query("SELECT new com.barberia.dto.AppointmentDto(" +
+           "a.id, c.id, c.firstName, c.lastName, c.email, c.phone, c.createdAt, " +
+           "a.appointmentDate, a.appointmentTime, a.totalPrice, a.totalDurationMinutes, " +
+           "a.status, a.createdAt, a.notes) " +
+           "FROM ArchivedAppointment a JOIN a.client c " +
+           "WHERE c.id = :clientId " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentDto> findByClientId(@Param("clientId") Long clientId);
+    
+    @Query("SELECT new com.barberia.dto.AppointmentServiceRow(" +
+           "a.id, s.id, s.name, s.description, s.price, s.durationMinutes, s.iconName) " +
+           "FROM ArchivedAppointment a JOIN a.services s WHERE a.id IN :appointmentIds " +
+           "ORDER BY a.id, s.id")
+    List<AppointmentServiceRow> findServiceRows(@Param("appointmentIds") Collection<Long> appointmentIds);
+    
+    /**
+     * Recorre las reservas archivadas del rango, con el mismo formato y orden que
+     * AppointmentRepository.streamForExport
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.barberia.dto.AppointmentExportRow(" +
+           "a.id, a.appointmentDate, a.appointmentTime, a.status, a.totalPrice, a.totalDurationMinutes, " +
+           "c.id, c.firstName, c.lastName, c.email, s.id, s.name) " +
+           "FROM ArchivedAppointment a JOIN a.client c LEFT JOIN a.services s " +
+           "WHERE a.appointmentDate >= :startDate " +
+           "AND a.appointmentDate <= :endDate " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    Stream<AppointmentExportRow> streamForExport(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("status") AppointmentStatus status
+    );
+}
@@ -0,0 +1,22 @@
+package com.barberia.repository;
+
+import com.barberia.model.DailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollup.Key> {
+    
+    @Query("SELECT r FROM DailyRollup r WHERE r.rollupDate >= :startDate " +
+           "AND r.rollupDate <= :endDate " +
+           "ORDER BY r.rollupDate")
+    List<DailyRollup> findInDateRange(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+}
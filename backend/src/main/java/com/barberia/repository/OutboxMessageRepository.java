@@ -0,0 +1,20 @@
+package com.barberia.repository;
+
+import com.barberia.model.OutboxMessage;
+import com.barberia.model.OutboxMessageType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = com.barberia.model.OutboxStatus.DISCARDED " +
+           "WHERE m.appointmentId = :appointmentId " +
+           "AND m.type = :type " +
+           "AND m.status = com.barberia.model.OutboxStatus.PENDING")
+    int discardPending(@Param("appointmentId") Long appointmentId, @Param("type") OutboxMessageType type);
+}
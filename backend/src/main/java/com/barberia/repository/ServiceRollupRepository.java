@@ -0,0 +1,31 @@
+package com.barberia.repository;
+
+import com.barberia.dto.ServiceRevenueDto;
+import com.barberia.model.ServiceRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ServiceRollupRepository extends JpaRepository<ServiceRollup, ServiceRollup.Key> {
+    
+    @Query("SELECT new com.barberia.dto.ServiceRevenueDto(s.id, s.name, " +
+           "SUM(CASE WHEN r.status = com.barberia.model.AppointmentStatus.COMPLETED THEN r.appointments ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = com.barberia.model.AppointmentStatus.CONFIRMED THEN r.appointments ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = com.barberia.model.AppointmentStatus.COMPLETED THEN r.revenue ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = com.barberia.model.AppointmentStatus.CONFIRMED THEN r.revenue ELSE 0 END), " +
+           "SUM(CASE WHEN r.status <> com.barberia.model.AppointmentStatus.CANCELLED THEN r.minutes ELSE 0 END)) " +
+           "FROM ServiceRollup r JOIN Service s ON s.id = r.serviceId " +
+           "WHERE r.rollupDate >= :startDate " +
+           "AND r.rollupDate <= :endDate " +
+           "GROUP BY s.id, s.name " +
+           "ORDER BY s.name")
+    List<ServiceRevenueDto> summarizeByService(
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,16 @@
+package com.barberia.repository;
+
+import com.barberia.model.SlotClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SlotClaimRepository extends JpaRepository<SlotClaim, Long> {
+    
+    @Modifying
+    @Query("DELETE FROM SlotClaim c WHERE c.appointmentId = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Long appointmentId);
+}
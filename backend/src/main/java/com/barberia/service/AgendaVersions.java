@@ -0,0 +1,124 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de la agenda de cada fecha, para responder los GET condicionales
+ * (ETag / If-None-Match) sin consultar la base ni serializar la respuesta.
+ *
+ * Cada cambio sobre una fecha le asigna, después del commit, el siguiente valor de un
+ * contador global. La versión de un rango es la mayor de sus fechas, y los cambios que
+ * afectan a todas las fechas (el catálogo de servicios) suben una versión común. Como
+ * el ETag se calcula antes de leer los datos y la versión sube después del commit, una
+ * respuesta nunca queda asociada a una versión posterior a la de sus datos.
+ *
+ * Con barberia.booking.occupancy-max-age (varias instancias) las versiones locales no
+ * ven los cambios de otras instancias, así que el ETag además cambia cada ese intervalo.
+ */
+@Component
+public class AgendaVersions {
+
+    /**
+     * Distingue los ETags de distintas ejecuciones, ya que el contador empieza de cero
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final Map<LocalDate, Long> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private final BarberiaProperties barberiaProperties;
+
+    public AgendaVersions(BarberiaProperties barberiaProperties) {
+        this.barberiaProperties = barberiaProperties;
+    }
+
+    /**
+     * Sube la versión de la fecha cuando termine la transacción actual, si hace commit
+     */
+    public void changed(LocalDate date) {
+        afterCommit(() -> versions.merge(date, counter.incrementAndGet(), Math::max));
+    }
+
+    /**
+     * Sube la versión de varias fechas cuando termine la transacción actual, si hace commit
+     */
+    public void changed(Collection<LocalDate> dates) {
+        afterCommit(() -> {
+            long version = counter.incrementAndGet();
+            for (LocalDate date : dates) {
+                versions.merge(date, version, Math::max);
+            }
+        });
+    }
+
+    /**
+     * Sube la versión de todas las fechas cuando termine la transacción actual
+     */
+    public void changedAll() {
+        afterCommit(() -> globalVersion.accumulateAndGet(counter.incrementAndGet(), Math::max));
+    }
+
+    /**
+     * ETag fuerte de lo publicado para una fecha
+     */
+    public String etag(LocalDate date) {
+        return etag(Math.max(globalVersion.get(), versions.getOrDefault(date, 0L)));
+    }
+
+    /**
+     * ETag fuerte de lo publicado para las fechas del rango
+     */
+    public String etag(LocalDate startDate, LocalDate endDate) {
+        long version = globalVersion.get();
+        long days = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        if (days > versions.size()) {
+            // Rango más largo que las fechas modificadas: recorrer solo estas
+            for (Map.Entry<LocalDate, Long> entry : versions.entrySet()) {
+                LocalDate date = entry.getKey();
+                if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                    version = Math.max(version, entry.getValue());
+                }
+            }
+        } else {
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                version = Math.max(version, versions.getOrDefault(date, 0L));
+            }
+        }
+        return etag(version);
+    }
+
+    private String etag(long version) {
+        Duration maxAge = barberiaProperties.getBooking().getOccupancyMaxAge();
+        String tag = epoch + "-" + version;
+        if (maxAge != null) {
+            tag += "-" + System.currentTimeMillis() / Math.max(maxAge.toMillis(), 1);
+        }
+        return "\"" + tag + "\"";
+    }
+
+    private static void afterCommit(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.barberia.service;
+
+import com.barberia.dto.AppointmentExportRow;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.repository.AppointmentRepository;
+import com.barberia.repository.ArchivedAppointmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Exporta reservas escribiéndolas directamente en el stream de salida a medida que se
+ * leen, sin acumular el resultado en memoria. Las reservas archivadas del rango se
+ * intercalan con las vigentes en el mismo orden por fecha, hora e id.
+ */
+@Service
+public class AppointmentExportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final Comparator<AppointmentExportRow> EXPORT_ORDER = Comparator
+        .comparing(AppointmentExportRow::getAppointmentDate)
+        .thenComparing(AppointmentExportRow::getAppointmentTime)
+        .thenComparing(AppointmentExportRow::getAppointmentId);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Escribe las reservas del rango en el formato pedido; status null exporta todos los estados
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDate startDate, LocalDate endDate, AppointmentStatus status,
+                       Format format, OutputStream out) throws IOException {
+        // Las vigentes se leen primero: una reserva archivada entre las dos consultas aparece
+        // en ambas y MergedRows la escribe una sola vez
+        try (Stream<AppointmentExportRow> live = appointmentRepository.streamForExport(startDate, endDate, status);
+             Stream<AppointmentExportRow> archived = archivedAppointmentRepository.streamForExport(startDate, endDate, status)) {
+            RecordWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+            long exported = 0;
+            Iterator<AppointmentExportRow> iterator = new MergedRows(live.iterator(), archived.iterator());
+            AppointmentExportRow current = null;
+            List<AppointmentExportRow> services = new ArrayList<>();
+            while (iterator.hasNext()) {
+                AppointmentExportRow row = iterator.next();
+                // Las filas de una misma reserva llegan juntas: se escribe al cambiar de id
+                if (current != null && !current.getAppointmentId().equals(row.getAppointmentId())) {
+                    writer.write(current, services);
+                    exported++;
+                    services.clear();
+                }
+                current = row;
+                if (row.getServiceId() != null) {
+                    services.add(row);
+                }
+            }
+            if (current != null) {
+                writer.write(current, services);
+                exported++;
+            }
+            writer.finish();
+            return exported;
+        }
+    }
+
+    /**
+     * Intercala dos recorridos ordenados por fecha, hora e id sin separar las filas de una
+     * misma reserva; si la reserva está en ambos, se toman solo las filas del primero
+     */
+    private static class MergedRows implements Iterator<AppointmentExportRow> {
+        private final PeekingRows first;
+        private final PeekingRows second;
+
+        MergedRows(Iterator<AppointmentExportRow> first, Iterator<AppointmentExportRow> second) {
+            this.first = new PeekingRows(first);
+            this.second = new PeekingRows(second);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return first.peek() != null || second.peek() != null;
+        }
+
+        @Override
+        public AppointmentExportRow next() {
+            AppointmentExportRow a = first.peek();
+            AppointmentExportRow b = second.peek();
+            if (a != null && b != null && a.getAppointmentId().equals(b.getAppointmentId())) {
+                while (b != null && b.getAppointmentId().equals(a.getAppointmentId())) {
+                    second.next();
+                    b = second.peek();
+                }
+            }
+            if (a == null && b == null) {
+                throw new NoSuchElementException();
+            }
+            return b == null || (a != null && EXPORT_ORDER.compare(a, b) <= 0) ? first.next() : second.next();
+        }
+    }
+
+    private static class PeekingRows {
+        private final Iterator<AppointmentExportRow> rows;
+        private AppointmentExportRow head;
+
+        PeekingRows(Iterator<AppointmentExportRow> rows) {
+            this.rows = rows;
+        }
+
+        AppointmentExportRow peek() {
+            if (head == null && rows.hasNext()) {
+                head = rows.next();
+            }
+            return head;
+        }
+
+        AppointmentExportRow next() {
+            AppointmentExportRow row = peek();
+            head = null;
+            return row;
+        }
+    }
+
+    private interface RecordWriter {
+        void write(AppointmentExportRow appointment, List<AppointmentExportRow> services) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class NdjsonWriter implements RecordWriter {
+        private final OutputStream out;
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.out = out;
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(AppointmentExportRow a, List<AppointmentExportRow> services) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", a.getAppointmentId());
+            generator.writeStringField("date", a.getAppointmentDate().toString());
+            generator.writeStringField("time", a.getAppointmentTime().toString());
+            generator.writeStringField("status", a.getStatus().name());
+            generator.writeNumberField("totalPrice", a.getTotalPrice());
+            if (a.getTotalDurationMinutes() != null) {
+                generator.writeNumberField("totalDurationMinutes", a.getTotalDurationMinutes());
+            }
+            generator.writeNumberField("clientId", a.getClientId());
+            generator.writeStringField("clientName", a.getClientName());
+            generator.writeStringField("clientEmail", a.getClientEmail());
+            generator.writeArrayFieldStart("services");
+            for (AppointmentExportRow service : services) {
+                generator.writeString(service.getServiceName());
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+            out.flush();
+        }
+    }
+
+    private static class CsvWriter implements RecordWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,date,time,status,totalPrice,totalDurationMinutes,clientId,clientName,clientEmail,services\n");
+        }
+
+        @Override
+        public void write(AppointmentExportRow a, List<AppointmentExportRow> services) throws IOException {
+            StringBuilder names = new StringBuilder();
+            for (AppointmentExportRow service : services) {
+                if (names.length() > 0) {
+                    names.append('+');
+                }
+                names.append(service.getServiceName());
+            }
+            writer.write(a.getAppointmentId() + "," + a.getAppointmentDate() + "," + a.getAppointmentTime() + ","
+                + a.getStatus() + "," + a.getTotalPrice().toPlainString() + ","
+                + (a.getTotalDurationMinutes() != null ? a.getTotalDurationMinutes() : "") + ","
+                + a.getClientId() + "," + quote(a.getClientName()) + "," + quote(a.getClientEmail()) + ","
+                + quote(names.toString()) + "\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String quote(String value) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.AppointmentImportRequest;
+import com.barberia.dto.ClientDate;
+import com.barberia.dto.ImportFailureDto;
+import com.barberia.dto.ImportResultDto;
+import com.barberia.model.Appointment;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.Client;
+import com.barberia.repository.AppointmentRepository;
+import com.barberia.repository.ClientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de reservas.
+ *
+ * Las filas se validan en memoria (clientes, servicios, una reserva por cliente y día y
+ * superposición de horarios contra el índice de ocupación y contra las demás filas) y se
+ * insertan en lotes, cada uno en su propia transacción, usando inserciones JDBC en batch.
+ * Las filas rechazadas se informan con su posición y el motivo.
+ */
+@Service
+public class AppointmentImportService {
+
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private SlotClaimService slotClaimService;
+
+    @Autowired
+    private DateLockStripes dateLockStripes;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    private SlotEventBroadcaster slotEventBroadcaster;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Importa las reservas en lotes y devuelve cuántas se insertaron y cuáles fallaron
+     */
+    public ImportResultDto importAppointments(List<AppointmentImportRequest> rows) {
+        long started = System.nanoTime();
+        ImportResultDto result = new ImportResultDto(rows.size());
+        Set<Long> clientIds = findExistingClients(rows);
+        int batchSize = barberiaProperties.getBulkImport().getBatchSize();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, rows.size());
+            int first = from;
+            List<ImportFailureDto> failures = new ArrayList<>();
+            try {
+                int imported = transaction.execute(status -> importBatch(rows, first, to, clientIds, failures));
+                result.setImported(result.getImported() + imported);
+                result.getFailures().addAll(failures);
+            } catch (RuntimeException e) {
+                // El lote completo hizo rollback: todas sus filas se informan como fallidas
+                Set<Integer> rejected = new HashSet<>();
+                for (ImportFailureDto failure : failures) {
+                    rejected.add(failure.getRow());
+                    result.getFailures().add(failure);
+                }
+                for (int row = from; row < to; row++) {
+                    if (!rejected.contains(row)) {
+                        result.getFailures().add(new ImportFailureDto(row, "Lote rechazado: " + e.getMessage()));
+                    }
+                }
+            }
+        }
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    private int importBatch(List<AppointmentImportRequest> rows, int from, int to,
+                            Set<Long> clientIds, List<ImportFailureDto> failures) {
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        for (int row = from; row < to; row++) {
+            if (rows.get(row).getDate() != null) {
+                dates.add(rows.get(row).getDate());
+            }
+        }
+        if (dates.isEmpty()) {
+            for (int row = from; row < to; row++) {
+                failures.add(new ImportFailureDto(row, "La fecha es obligatoria"));
+            }
+            return 0;
+        }
+
+        // Con los días del lote bloqueados, el estado leído no cambia hasta el commit
+        dateLockStripes.lockAllUntilCompletion(dates);
+        slotOccupancyIndex.loadRange(dates.first(), dates.last());
+        Set<ClientDate> bookedClientDates = new HashSet<>(
+            appointmentRepository.findBookedClientDates(dates.first(), dates.last()));
+
+        List<Appointment> accepted = new ArrayList<>();
+        List<Appointment> confirmed = new ArrayList<>();
+        for (int row = from; row < to; row++) {
+            AppointmentImportRequest request = rows.get(row);
+            String error = validate(request, clientIds);
+            ServiceCatalog.BundleQuote quote = null;
+            if (error == null) {
+                try {
+                    quote = serviceCatalog.quote(request.getServiceIds());
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            AppointmentStatus status = request.getStatus();
+            boolean booked = status == AppointmentStatus.CONFIRMED || status == AppointmentStatus.COMPLETED;
+            ClientDate clientDate = new ClientDate(request.getClientId(), request.getDate());
+            // Las reservas históricas pudieron tomarse con otro horario; solo se validan las confirmadas
+            if (error == null && status == AppointmentStatus.CONFIRMED
+                    && !businessCalendar.isWithinHours(request.getDate(), request.getTime(), quote.getTotalDurationMinutes())) {
+                error = "El horario seleccionado está fuera del horario de atención";
+            }
+            if (error == null && status == AppointmentStatus.CONFIRMED && !slotClaimService.isOnGrid(request.getTime())) {
+                error = slotClaimService.offGridMessage();
+            }
+            if (error == null && booked && bookedClientDates.contains(clientDate)) {
+                error = "El cliente ya tiene una reserva para esta fecha";
+            }
+            if (error == null && status == AppointmentStatus.CONFIRMED
+                    && !slotOccupancyIndex.isFree(request.getDate(), request.getTime(), quote.getTotalDurationMinutes())) {
+                error = "El horario seleccionado no está disponible";
+            }
+            if (error != null) {
+                failures.add(new ImportFailureDto(row, error));
+                continue;
+            }
+
+            Client client = entityManager.getReference(Client.class, request.getClientId());
+            Appointment appointment = new Appointment(client, quote.getServices(), request.getDate(),
+                request.getTime(), quote.getTotalPrice(), quote.getTotalDurationMinutes());
+            appointment.setStatus(status);
+            appointment.setNotes(request.getNotes());
+            accepted.add(appointment);
+            if (booked) {
+                bookedClientDates.add(clientDate);
+            }
+            if (status == AppointmentStatus.CONFIRMED) {
+                // Ocupar ya el horario para que las filas siguientes del lote lo vean tomado
+                slotOccupancyIndex.occupy(request.getDate(), request.getTime(), quote.getTotalDurationMinutes());
+                slotEventBroadcaster.slotTaken(request.getDate(), request.getTime(), quote.getTotalDurationMinutes());
+                confirmed.add(appointment);
+            }
+        }
+
+        appointmentRepository.saveAll(accepted);
+        if (!confirmed.isEmpty()) {
+            slotClaimService.claimAll(confirmed);
+        }
+        if (!accepted.isEmpty()) {
+            rollupService.addedAll(accepted);
+            agendaVersions.changed(accepted.stream().map(Appointment::getAppointmentDate).collect(Collectors.toSet()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return accepted.size();
+    }
+
+    private static String validate(AppointmentImportRequest request, Set<Long> clientIds) {
+        if (request.getDate() == null || request.getTime() == null) {
+            return "La fecha y la hora son obligatorias";
+        }
+        if (request.getStatus() == null) {
+            return "El estado es obligatorio";
+        }
+        if (request.getServiceIds() == null || request.getServiceIds().isEmpty()) {
+            return "Los servicios son obligatorios";
+        }
+        if (request.getClientId() == null || !clientIds.contains(request.getClientId())) {
+            return "Cliente no encontrado";
+        }
+        return null;
+    }
+
+    private Set<Long> findExistingClients(List<AppointmentImportRequest> rows) {
+        List<Long> requested = rows.stream()
+            .map(AppointmentImportRequest::getClientId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < requested.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> ids = requested.subList(from, Math.min(from + IN_CLAUSE_SIZE, requested.size()));
+            clientRepository.findAllById(ids).forEach(client -> existing.add(client.getId()));
+        }
+        return existing;
+    }
+}
@@ -1,137 +1,403 @@
 package com.barberia.service;
 
+import com.barberia.dto.AppointmentCursor;
+import com.barberia.dto.AppointmentDto;
+import com.barberia.dto.AppointmentPageDto;
+import com.barberia.dto.AppointmentServiceRow;
+import com.barberia.dto.DayAvailabilityDto;
+import com.barberia.dto.TimeSlotDto;
 import com.barberia.model.Appointment;
 import com.barberia.model.AppointmentStatus;
 import com.barberia.model.Client;
-import com.barberia.model.Service;
 import com.barberia.repository.AppointmentRepository;
+import com.barberia.repository.ArchivedAppointmentRepository;
 import com.barberia.repository.ClientRepository;
-import com.barberia.repository.ServiceRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed(value = "barberia.appointment.service", description = "Operaciones de AppointmentService")
 public class AppointmentService {
 
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
     @Autowired
     private ClientRepository clientRepository;
 
     @Autowired
-    private ServiceRepository serviceRepository;
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private DateLockStripes dateLockStripes;
+
+    @Autowired
+    private SlotClaimService slotClaimService;
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Autowired
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    private SlotEventBroadcaster slotEventBroadcaster;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private OutboxService outboxService;
 
     /**
      * Crea una nueva reserva validando que no haya conflictos de horario
      */
-    public Appointment createAppointment(Long clientId, List<Long> serviceIds, 
+    public AppointmentDto createAppointment(Long clientId, List<Long> serviceIds, 
                                        LocalDate date, LocalTime time, String notes) {
+        try {
+            AppointmentDto created = book(clientId, serviceIds, date, time, notes);
+            bookingMetrics.recordAfterCommit(BookingOutcome.CONFIRMED);
+            return created;
+        } catch (BookingRejectedException e) {
+            bookingMetrics.record(e.getOutcome());
+            throw e;
+        }
+    }
+
+    private AppointmentDto book(Long clientId, List<Long> serviceIds, LocalDate date, LocalTime time, String notes) {
+        // Validar que los servicios existen (desde el catálogo en memoria)
+        ServiceCatalog.BundleQuote quote = serviceCatalog.quote(serviceIds);
+        
+        // Precio total y duración ya calculados para esta combinación de servicios
+        BigDecimal totalPrice = quote.getTotalPrice();
+        Integer totalDuration = quote.getTotalDurationMinutes();
+        
+        // Rechazar en memoria, antes de consultar la base, los pedidos fuera del horario de atención
+        if (!businessCalendar.isOpen(date)) {
+            throw new BookingRejectedException(BookingOutcome.OUTSIDE_BUSINESS_HOURS, "La barbería no atiende en la fecha seleccionada");
+        }
+        if (!businessCalendar.isWithinHours(date, time, totalDuration)) {
+            throw new BookingRejectedException(BookingOutcome.OUTSIDE_BUSINESS_HOURS, "El horario seleccionado está fuera del horario de atención");
+        }
+        slotClaimService.requireOnGrid(time);
         
         // Validar que el cliente existe
         Client client = clientRepository.findById(clientId)
-            .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
+            .orElseThrow(() -> new BookingRejectedException(BookingOutcome.CLIENT_NOT_FOUND, "Cliente no encontrado"));
         
-        // Validar que los servicios existen
-        List<Service> services = serviceRepository.findAllById(serviceIds);
-        if (services.size() != serviceIds.size()) {
-            throw new RuntimeException("Algunos servicios no fueron encontrados");
+        // Descartar sin esperar el lock los horarios que ya se sabe que están ocupados
+        if (!isTimeSlotAvailable(date, time, totalDuration)) {
+            throw new BookingRejectedException(BookingOutcome.SLOT_CONFLICT, "El horario seleccionado no está disponible");
         }
         
+        // Serializar las reservas del mismo día hasta el commit; otros días siguen en paralelo
+        dateLockStripes.lockUntilCompletion(date);
+        
         // Validar que no haya reserva previa para el mismo cliente en la misma fecha
         if (appointmentRepository.existsByClientAndDate(clientId, date)) {
-            throw new RuntimeException("El cliente ya tiene una reserva para esta fecha");
+            throw new BookingRejectedException(BookingOutcome.CLIENT_ALREADY_BOOKED, "El cliente ya tiene una reserva para esta fecha");
         }
         
-        // Calcular precio total y duración
-        BigDecimal totalPrice = services.stream()
-            .map(Service::getPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        Integer totalDuration = services.stream()
-            .mapToInt(Service::getDurationMinutes)
-            .sum();
-        
-        // Validar disponibilidad del horario
+        // Validar disponibilidad del horario, ahora con el día bloqueado
         if (!isTimeSlotAvailable(date, time, totalDuration)) {
-            throw new RuntimeException("El horario seleccionado no está disponible");
+            throw new BookingRejectedException(BookingOutcome.SLOT_CONFLICT, "El horario seleccionado no está disponible");
         }
         
         // Crear la reserva
-        Appointment appointment = new Appointment(client, services, date, time, totalPrice, totalDuration);
+        Appointment appointment = new Appointment(client, quote.getServices(), date, time, totalPrice, totalDuration);
         appointment.setNotes(notes);
         
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        // La restricción única de slot_claims protege también frente a otras instancias
+        slotClaimService.claim(saved);
+        slotOccupancyIndex.occupy(date, time, totalDuration);
+        rollupService.added(saved);
+        outboxService.bookingConfirmed(saved);
+        agendaVersions.changed(date);
+        slotEventBroadcaster.slotTaken(date, time, totalDuration);
+        return AppointmentDto.from(saved);
     }
 
     /**
      * Verifica si un horario está disponible para una duración específica
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean isTimeSlotAvailable(LocalDate date, LocalTime time, Integer durationMinutes) {
-        LocalTime endTime = time.plusMinutes(durationMinutes);
-        
-        // Verificar que no haya reservas que se superpongan
-        List<Appointment> conflictingAppointments = appointmentRepository
-            .findConflictingAppointments(date, time, endTime, AppointmentStatus.CONFIRMED);
-        
-        return conflictingAppointments.isEmpty();
+        // Fuera del horario de atención no está disponible, sin necesidad de cargar el día
+        if (!businessCalendar.isWithinHours(date, time, durationMinutes) || !slotClaimService.isOnGrid(time)) {
+            return false;
+        }
+        // Verificar contra el índice en memoria que no haya reservas que se superpongan
+        return slotOccupancyIndex.isFree(date, time, durationMinutes);
+    }
+
+    /**
+     * Obtiene la grilla de horarios libres/ocupados para los servicios indicados,
+     * desde startDate durante la cantidad de días pedida
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<DayAvailabilityDto> getAvailabilityGrid(List<Long> serviceIds, LocalDate startDate, int days) {
+        int duration = serviceCatalog.quote(serviceIds).getTotalDurationMinutes();
+
+        LocalDate endDate = startDate.plusDays(days - 1);
+        if (businessCalendar.openMinutes(startDate, endDate) > 0) {
+            slotOccupancyIndex.loadRange(startDate, endDate);
+        }
+        int step = businessCalendar.slotDuration();
+
+        List<DayAvailabilityDto> grid = new ArrayList<>(days);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!businessCalendar.isOpen(date)) {
+                grid.add(new DayAvailabilityDto(date, false, List.of()));
+                continue;
+            }
+            int open = businessCalendar.openMinute(date);
+            int close = businessCalendar.closeMinute(date);
+            List<TimeSlotDto> slots = new ArrayList<>();
+            for (int minute = open; minute + duration <= close; minute += step) {
+                boolean available = slotOccupancyIndex.isFree(date, minute, duration);
+                slots.add(new TimeSlotDto(LocalTime.of(minute / 60, minute % 60), available));
+            }
+            grid.add(new DayAvailabilityDto(date, true, slots));
+        }
+        return grid;
+    }
+
+    /**
+     * Busca los primeros horarios libres para los servicios indicados a partir de
+     * fromDate, recorriendo como máximo horizonDays días
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<LocalDateTime> findNextAvailableSlots(List<Long> serviceIds, LocalDate fromDate,
+                                                      int horizonDays, int limit) {
+        int duration = serviceCatalog.quote(serviceIds).getTotalDurationMinutes();
+
+        LocalDate endDate = fromDate.plusDays(horizonDays - 1);
+        if (businessCalendar.openMinutes(fromDate, endDate) > 0) {
+            slotOccupancyIndex.loadRange(fromDate, endDate);
+        }
+        int step = businessCalendar.slotDuration();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<LocalDateTime> result = new ArrayList<>(limit);
+        for (LocalDate date = fromDate; !date.isAfter(endDate) && result.size() < limit; date = date.plusDays(1)) {
+            if (date.isBefore(now.toLocalDate()) || !businessCalendar.isOpen(date)) {
+                continue;
+            }
+            int open = businessCalendar.openMinute(date);
+            int close = businessCalendar.closeMinute(date);
+            // Hoy solo se ofrecen horarios que todavía no pasaron
+            int from = date.equals(now.toLocalDate()) ? SlotOccupancyIndex.toMinute(now.toLocalTime()) + 1 : open;
+            int start;
+            while (result.size() < limit
+                    && (start = slotOccupancyIndex.firstFit(date, from, close, open, step, duration)) >= 0) {
+                result.add(LocalDateTime.of(date, LocalTime.of(start / 60, start % 60)));
+                from = start + step;
+            }
+        }
+        return result;
     }
 
     /**
      * Obtiene todas las reservas confirmadas para una fecha específica
      */
-    public List<Appointment> getAppointmentsByDate(LocalDate date) {
-        return appointmentRepository.findByAppointmentDateAndStatus(date, AppointmentStatus.CONFIRMED);
+    @Transactional(readOnly = true)
+    public List<AppointmentDto> getAppointmentsByDate(LocalDate date) {
+        return withServices(appointmentRepository.findByAppointmentDateAndStatus(date, AppointmentStatus.CONFIRMED));
     }
 
     /**
      * Obtiene todas las reservas de un cliente
      */
-    public List<Appointment> getAppointmentsByClient(Long clientId) {
-        return appointmentRepository.findByClientIdAndStatus(clientId, AppointmentStatus.CONFIRMED);
+    @Transactional(readOnly = true)
+    public List<AppointmentDto> getAppointmentsByClient(Long clientId) {
+        return withServices(appointmentRepository.findByClientIdAndStatus(clientId, AppointmentStatus.CONFIRMED));
+    }
+
+    /**
+     * Obtiene el historial completo de un cliente, en cualquier estado, uniendo las
+     * reservas vivas con las archivadas
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentDto> getClientHistory(Long clientId) {
+        List<AppointmentDto> live = withServices(appointmentRepository.findAllByClientId(clientId));
+        List<AppointmentDto> archived = archivedWithServices(archivedAppointmentRepository.findByClientId(clientId));
+        if (archived.isEmpty()) {
+            return live;
+        }
+        // Ambas listas vienen ordenadas por fecha y hora; se intercalan
+        List<AppointmentDto> history = new ArrayList<>(live.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < live.size() || j < archived.size()) {
+            if (j == archived.size() || (i < live.size() && !isAfter(live.get(i), archived.get(j)))) {
+                history.add(live.get(i++));
+            } else {
+                history.add(archived.get(j++));
+            }
+        }
+        return history;
     }
 
     /**
      * Cancela una reserva
      */
-    public Appointment cancelAppointment(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-            .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
-        
+    public AppointmentDto cancelAppointment(Long appointmentId) {
+        Appointment appointment = lockAndLoad(appointmentId);
+        releaseSlotIfConfirmed(appointment);
+        agendaVersions.changed(appointment.getAppointmentDate());
+        AppointmentStatus previous = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.CANCELLED);
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        rollupService.statusChanged(saved, previous);
+        if (previous == AppointmentStatus.CONFIRMED) {
+            outboxService.bookingCancelled(saved);
+        }
+        return AppointmentDto.from(saved);
     }
 
     /**
      * Marca una reserva como completada
      */
-    public Appointment completeAppointment(Long appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-            .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
-        
+    public AppointmentDto completeAppointment(Long appointmentId) {
+        Appointment appointment = lockAndLoad(appointmentId);
+        releaseSlotIfConfirmed(appointment);
+        agendaVersions.changed(appointment.getAppointmentDate());
+        AppointmentStatus previous = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.COMPLETED);
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        rollupService.statusChanged(saved, previous);
+        if (previous == AppointmentStatus.CONFIRMED) {
+            outboxService.discardReminder(saved);
+        }
+        return AppointmentDto.from(saved);
+    }
+
+    /**
+     * Obtiene una página de las reservas activas, a continuación del cursor indicado
+     */
+    @Transactional(readOnly = true)
+    public AppointmentPageDto getActiveAppointmentsPage(String cursor, int size) {
+        AppointmentCursor after = cursor != null ? AppointmentCursor.decode(cursor) : AppointmentCursor.startOf(LocalDate.EPOCH);
+        List<AppointmentDto> appointments = appointmentRepository.findPageAfter(AppointmentStatus.CONFIRMED,
+            after.getDate(), after.getTime(), after.getId(), PageRequest.of(0, size + 1));
+        return toPage(appointments, size);
     }
 
     /**
-     * Obtiene todas las reservas activas
+     * Obtiene una página de las reservas en un rango de fechas, a continuación del cursor indicado
      */
-    public List<Appointment> getAllActiveAppointments() {
-        return appointmentRepository.findByStatusOrderByAppointmentDateAscAppointmentTimeAsc(AppointmentStatus.CONFIRMED);
+    @Transactional(readOnly = true)
+    public AppointmentPageDto getAppointmentsInDateRangePage(LocalDate startDate, LocalDate endDate,
+                                                             String cursor, int size) {
+        AppointmentCursor after = cursor != null ? AppointmentCursor.decode(cursor) : AppointmentCursor.startOf(startDate);
+        List<AppointmentDto> appointments = appointmentRepository.findPageInDateRangeAfter(AppointmentStatus.CONFIRMED,
+            startDate, endDate, after.getDate(), after.getTime(), after.getId(), PageRequest.of(0, size + 1));
+        return toPage(appointments, size);
     }
 
     /**
-     * Obtiene las reservas en un rango de fechas
+     * Recorta la fila extra pedida para saber si hay más resultados y arma el cursor siguiente
      */
-    public List<Appointment> getAppointmentsInDateRange(LocalDate startDate, LocalDate endDate) {
-        return appointmentRepository.findAppointmentsInDateRange(startDate, endDate, AppointmentStatus.CONFIRMED);
+    private AppointmentPageDto toPage(List<AppointmentDto> appointments, int size) {
+        String nextCursor = null;
+        if (appointments.size() > size) {
+            appointments = appointments.subList(0, size);
+            nextCursor = AppointmentCursor.after(appointments.get(size - 1)).encode();
+        }
+        return new AppointmentPageDto(withServices(appointments), nextCursor);
+    }
+
+    /**
+     * Completa los servicios de las reservas con una única consulta para toda la lista
+     */
+    private List<AppointmentDto> withServices(List<AppointmentDto> appointments) {
+        if (appointments.isEmpty()) {
+            return appointments;
+        }
+        Map<Long, AppointmentDto> byId = new HashMap<>();
+        for (AppointmentDto appointment : appointments) {
+            byId.put(appointment.getId(), appointment);
+        }
+        for (AppointmentServiceRow row : appointmentRepository.findServiceRows(byId.keySet())) {
+            byId.get(row.getAppointmentId()).getServices().add(row.getService());
+        }
+        return appointments;
+    }
+
+    /**
+     * Completa los servicios de reservas archivadas con una única consulta
+     */
+    private List<AppointmentDto> archivedWithServices(List<AppointmentDto> archived) {
+        if (archived.isEmpty()) {
+            return archived;
+        }
+        Map<Long, AppointmentDto> byId = new HashMap<>();
+        for (AppointmentDto appointment : archived) {
+            byId.put(appointment.getId(), appointment);
+        }
+        for (AppointmentServiceRow row : archivedAppointmentRepository.findServiceRows(byId.keySet())) {
+            byId.get(row.getAppointmentId()).getServices().add(row.getService());
+        }
+        return archived;
+    }
+
+    private static boolean isAfter(AppointmentDto a, AppointmentDto b) {
+        int byDate = a.getAppointmentDate().compareTo(b.getAppointmentDate());
+        if (byDate != 0) {
+            return byDate > 0;
+        }
+        int byTime = a.getAppointmentTime().compareTo(b.getAppointmentTime());
+        return byTime != 0 ? byTime > 0 : a.getId() > b.getId();
+    }
+
+    /**
+     * Toma el lock de la fecha de la reserva y recién después la carga, así el estado
+     * leído no puede cambiar por otra cancelación o por el cierre diario hasta el commit
+     */
+    private Appointment lockAndLoad(Long appointmentId) {
+        LocalDate date = appointmentRepository.findDateById(appointmentId)
+            .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+        dateLockStripes.lockUntilCompletion(date);
+        return appointmentRepository.findById(appointmentId)
+            .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+    }
+
+    /**
+     * Libera el horario (claims e índice de ocupación) si la reserva seguía confirmada,
+     * y lo avisa a los suscriptores
+     */
+    private void releaseSlotIfConfirmed(Appointment appointment) {
+        if (appointment.getStatus() == AppointmentStatus.CONFIRMED) {
+            slotClaimService.release(appointment);
+            slotOccupancyIndex.release(appointment.getAppointmentDate(),
+                appointment.getAppointmentTime(), appointment.getTotalDurationMinutes());
+            slotEventBroadcaster.slotFreed(appointment.getAppointmentDate(),
+                appointment.getAppointmentTime(), appointment.getTotalDurationMinutes());
+        }
     }
 }
@@ -0,0 +1,107 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.ArchiveResultDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mueve las reservas finalizadas (completadas, canceladas o ausentes) con más antigüedad
+ * que barberia.archive.max-age, junto con sus servicios, de appointments y
+ * appointment_services a appointments_archive y appointment_services_archive.
+ *
+ * Así las tablas vivas, y sus índices, quedan con las reservas recientes y las
+ * confirmadas. Cada lote bloquea sus filas, las copia y las borra en una transacción;
+ * una cancelación o finalización concurrente sobre una reserva del lote espera y luego
+ * falla, ya que las reservas archivadas no se modifican. Los rollups no cambian: siguen
+ * contando las reservas archivadas, y su reconstrucción lee ambas tablas.
+ */
+@Component
+public class ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Scheduled(cron = "${barberia.archive.cron:0 0 3 * * *}")
+    public void archiveDaily() {
+        archive();
+    }
+
+    /**
+     * Archiva por lotes las reservas finalizadas anteriores a hoy menos barberia.archive.max-age
+     */
+    public ArchiveResultDto archive() {
+        BarberiaProperties.Archive config = barberiaProperties.getArchive();
+        return archive(LocalDate.now().minusDays(config.getMaxAge().toDays()));
+    }
+
+    /**
+     * Archiva por lotes las reservas finalizadas anteriores a la fecha de corte
+     */
+    public ArchiveResultDto archive(LocalDate cutoffDate) {
+        long started = System.nanoTime();
+        int batchSize = barberiaProperties.getArchive().getBatchSize();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ArchiveResultDto result = new ArchiveResultDto();
+        result.setCutoffDate(cutoffDate);
+        int moved;
+        do {
+            Integer batch = transaction.execute(status -> archiveBatch(cutoffDate, batchSize));
+            moved = batch == null ? 0 : batch;
+            if (moved > 0) {
+                result.setAppointments(result.getAppointments() + moved);
+                result.setBatches(result.getBatches() + 1);
+            }
+        } while (moved == batchSize);
+
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Archivado de reservas anteriores a {}: {} reservas en {} lotes, {} ms", cutoffDate,
+            result.getAppointments(), result.getBatches(), result.getElapsedMillis());
+        return result;
+    }
+
+    private int archiveBatch(LocalDate cutoffDate, int batchSize) {
+        // FOR UPDATE: los cambios de estado concurrentes esperan a que el lote termine
+        List<Long> ids = jdbcTemplate.queryForList(
+            "SELECT id FROM appointments WHERE status IN ('COMPLETED', 'CANCELLED', 'NO_SHOW') " +
+            "AND appointment_date < ? ORDER BY id LIMIT ? FOR UPDATE",
+            Long.class, cutoffDate, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String in = "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] args = ids.toArray();
+
+        jdbcTemplate.update(
+            "INSERT INTO appointments_archive (id, client_id, appointment_date, appointment_time, total_price, " +
+            "total_duration_minutes, status, created_at, notes, archived_at) " +
+            "SELECT id, client_id, appointment_date, appointment_time, total_price, " +
+            "total_duration_minutes, status, created_at, notes, LOCALTIMESTAMP " +
+            "FROM appointments WHERE id IN " + in, args);
+        jdbcTemplate.update(
+            "INSERT INTO appointment_services_archive (appointment_id, service_id) " +
+            "SELECT appointment_id, service_id FROM appointment_services WHERE appointment_id IN " + in, args);
+        jdbcTemplate.update("DELETE FROM appointment_services WHERE appointment_id IN " + in, args);
+        jdbcTemplate.update("DELETE FROM appointments WHERE id IN " + in, args);
+        return ids.size();
+    }
+}
@@ -0,0 +1,49 @@
+package com.barberia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Contadores de resultados de reserva (barberia.bookings, tag outcome)
+ */
+@Component
+public class BookingMetrics {
+
+    private final Map<BookingOutcome, Counter> counters = new EnumMap<>(BookingOutcome.class);
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        for (BookingOutcome outcome : BookingOutcome.values()) {
+            counters.put(outcome, Counter.builder("barberia.bookings")
+                .description("Intentos de reserva por resultado")
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+    }
+
+    public void record(BookingOutcome outcome) {
+        counters.get(outcome).increment();
+    }
+
+    /**
+     * Cuenta el resultado solo si la transacción actual confirma
+     */
+    public void recordAfterCommit(BookingOutcome outcome) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(outcome);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(outcome);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.barberia.service;
+
+/**
+ * Resultado de un intento de reserva, usado como tag de la métrica barberia.bookings
+ */
+public enum BookingOutcome {
+    CONFIRMED,
+    OUTSIDE_BUSINESS_HOURS,
+    OFF_GRID_TIME,
+    CLIENT_NOT_FOUND,
+    UNKNOWN_SERVICE,
+    CLIENT_ALREADY_BOOKED,
+    SLOT_CONFLICT,
+    AGENDA_BUSY
+}
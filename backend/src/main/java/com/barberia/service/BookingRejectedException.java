@@ -0,0 +1,23 @@
+package com.barberia.service;
+
+/**
+ * Reserva rechazada por una regla de negocio; el motivo queda en {@link #getOutcome()}
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    private final BookingOutcome outcome;
+
+    public BookingRejectedException(BookingOutcome outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public BookingRejectedException(BookingOutcome outcome, String message, Throwable cause) {
+        super(message, cause);
+        this.outcome = outcome;
+    }
+
+    public BookingOutcome getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,161 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Horario de atención de cada fecha, compilado al iniciar desde barberia.business-hours,
+ * barberia.working-days, barberia.holidays y barberia.special-hours.
+ *
+ * Para las fechas entre un año atrás y tres adelante (y las de cualquier excepción) se
+ * precalcula un arreglo con la apertura y el cierre de cada día, así que consultar si
+ * un horario está dentro del de atención es un acceso a memoria. Las fechas fuera de ese
+ * rango se resuelven con la tabla por día de la semana. Reservas y disponibilidad lo
+ * consultan antes que nada, para rechazar sin ir a la base los pedidos fuera de horario.
+ */
+@Component
+public class BusinessCalendar {
+
+    /**
+     * Marca de día cerrado en los horarios compilados
+     */
+    private static final int CLOSED = -1;
+
+    private static final int PAST_DAYS = 366;
+
+    private static final int FUTURE_DAYS = 3 * 366;
+
+    /**
+     * Horario de cada día de la semana, indexado por DayOfWeek.ordinal()
+     */
+    private final int[] weekdayHours = new int[DayOfWeek.values().length];
+
+    /**
+     * Horario de cada fecha desde firstDay, en minutos: apertura << 16 | cierre
+     */
+    private final int[] dayHours;
+
+    private final long firstDay;
+
+    private final int slotDuration;
+
+    public BusinessCalendar(BarberiaProperties barberiaProperties) {
+        BarberiaProperties.BusinessHours hours = barberiaProperties.getBusinessHours();
+        int regular = pack(hours.getStart(), hours.getEnd(), "barberia.business-hours");
+        for (DayOfWeek day : DayOfWeek.values()) {
+            weekdayHours[day.ordinal()] = barberiaProperties.getWorkingDays().contains(day) ? regular : CLOSED;
+        }
+        this.slotDuration = hours.getSlotDuration();
+
+        Map<LocalDate, Integer> overrides = new HashMap<>();
+        for (LocalDate holiday : barberiaProperties.getHolidays()) {
+            overrides.put(holiday, CLOSED);
+        }
+        for (BarberiaProperties.SpecialHours special : barberiaProperties.getSpecialHours()) {
+            if (special.getDate() == null) {
+                throw new IllegalArgumentException("barberia.special-hours: falta la fecha");
+            }
+            if (overrides.containsKey(special.getDate())) {
+                throw new IllegalArgumentException("barberia.special-hours: la fecha " + special.getDate()
+                    + " está repetida o es feriado");
+            }
+            overrides.put(special.getDate(),
+                pack(special.getStart(), special.getEnd(), "barberia.special-hours " + special.getDate()));
+        }
+
+        // Rango compilado: alrededor de hoy y hasta cubrir todas las excepciones
+        long today = LocalDate.now().toEpochDay();
+        long first = today - PAST_DAYS;
+        long last = today + FUTURE_DAYS;
+        for (LocalDate date : overrides.keySet()) {
+            first = Math.min(first, date.toEpochDay());
+            last = Math.max(last, date.toEpochDay());
+        }
+        this.firstDay = first;
+        this.dayHours = new int[Math.toIntExact(last - first + 1)];
+        for (int i = 0; i < dayHours.length; i++) {
+            LocalDate date = LocalDate.ofEpochDay(first + i);
+            dayHours[i] = overrides.getOrDefault(date, weekdayHours[date.getDayOfWeek().ordinal()]);
+        }
+    }
+
+    /**
+     * Indica si se atiende en la fecha
+     */
+    public boolean isOpen(LocalDate date) {
+        return hours(date) != CLOSED;
+    }
+
+    /**
+     * Minuto del día en que abre, o -1 si la fecha está cerrada
+     */
+    public int openMinute(LocalDate date) {
+        int hours = hours(date);
+        return hours == CLOSED ? CLOSED : hours >>> 16;
+    }
+
+    /**
+     * Minuto del día en que cierra, o -1 si la fecha está cerrada
+     */
+    public int closeMinute(LocalDate date) {
+        int hours = hours(date);
+        return hours == CLOSED ? CLOSED : hours & 0xFFFF;
+    }
+
+    /**
+     * Indica si un turno que empieza a esa hora y dura esos minutos entra completo en
+     * el horario de atención de la fecha
+     */
+    public boolean isWithinHours(LocalDate date, LocalTime time, int durationMinutes) {
+        return isWithinHours(date, SlotOccupancyIndex.toMinute(time), durationMinutes);
+    }
+
+    public boolean isWithinHours(LocalDate date, int startMinute, int durationMinutes) {
+        int hours = hours(date);
+        return hours != CLOSED
+            && startMinute >= hours >>> 16
+            && startMinute + Math.max(durationMinutes, 1) <= (hours & 0xFFFF);
+    }
+
+    /**
+     * Minutos de atención sumados de todas las fechas del rango
+     */
+    public long openMinutes(LocalDate startDate, LocalDate endDate) {
+        long minutes = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            int hours = hours(date);
+            if (hours != CLOSED) {
+                minutes += (hours & 0xFFFF) - (hours >>> 16);
+            }
+        }
+        return minutes;
+    }
+
+    /**
+     * Separación en minutos entre los horarios que se ofrecen
+     */
+    public int slotDuration() {
+        return slotDuration;
+    }
+
+    private int hours(LocalDate date) {
+        long index = date.toEpochDay() - firstDay;
+        if (index >= 0 && index < dayHours.length) {
+            return dayHours[(int) index];
+        }
+        return weekdayHours[date.getDayOfWeek().ordinal()];
+    }
+
+    private static int pack(LocalTime start, LocalTime end, String source) {
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new IllegalArgumentException(source + ": el cierre debe ser posterior a la apertura");
+        }
+        return SlotOccupancyIndex.toMinute(start) << 16 | SlotOccupancyIndex.toMinute(end);
+    }
+}
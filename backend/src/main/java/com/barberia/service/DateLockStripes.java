@@ -0,0 +1,81 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks por fecha repartidos en un número fijo de franjas (lock striping).
+ *
+ * Las operaciones que modifican la agenda de un día toman el lock de su fecha y lo
+ * mantienen hasta que termina la transacción, de modo que las reservas sobre un mismo
+ * día se serializan mientras que las de días distintos avanzan en paralelo.
+ */
+@Component
+public class DateLockStripes {
+
+    private final ReentrantLock[] stripes;
+
+    private final long timeoutNanos;
+
+    public DateLockStripes(BarberiaProperties barberiaProperties) {
+        BarberiaProperties.Booking booking = barberiaProperties.getBooking();
+        this.stripes = new ReentrantLock[booking.getLockStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutNanos = booking.getLockTimeout().toNanos();
+    }
+
+    /**
+     * Toma el lock de la fecha hasta el fin de la transacción actual
+     */
+    public void lockUntilCompletion(LocalDate date) {
+        lock(stripe(date));
+    }
+
+    /**
+     * Toma los locks de todas las fechas, siempre en el mismo orden para evitar deadlocks
+     */
+    public void lockAllUntilCompletion(Collection<LocalDate> dates) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (LocalDate date : dates) {
+            indexes.add(stripe(date));
+        }
+        for (int index : indexes) {
+            lock(index);
+        }
+    }
+
+    private int stripe(LocalDate date) {
+        return Math.floorMod(Long.hashCode(date.toEpochDay()), stripes.length);
+    }
+
+    private void lock(int index) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Se requiere una transacción activa para bloquear una fecha");
+        }
+        ReentrantLock lock = stripes[index];
+        try {
+            if (!lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new BookingRejectedException(BookingOutcome.AGENDA_BUSY, "La agenda está ocupada, intente nuevamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("La reserva fue interrumpida", e);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
@@ -0,0 +1,157 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.EndOfDayResultDto;
+import com.barberia.dto.OccupiedSlot;
+import com.barberia.model.AppointmentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cierre de fin de día: pasa a COMPLETED (o NO_SHOW, según barberia.end-of-day) las
+ * reservas confirmadas cuyo horario ya terminó, para que dejen de pesar en las consultas
+ * de reservas confirmadas.
+ *
+ * Trabaja con sentencias masivas sobre tramos de fechas, cada tramo en su transacción y
+ * con los locks de sus fechas tomados, como la reconstrucción de rollups. En cada tramo
+ * libera los slot_claims y el índice de ocupación, recalcula los rollups de esas fechas y
+ * sube su versión de agenda, igual que completeAppointment pero sin recorrer reserva por
+ * reserva. Se ejecuta todos los días según barberia.end-of-day.cron y también a pedido.
+ */
+@Component
+public class EndOfDayService {
+
+    private static final Logger log = LoggerFactory.getLogger(EndOfDayService.class);
+
+    /**
+     * Reservas confirmadas del tramo [?, ?] cuyo horario terminó antes del corte (fecha, minuto del día)
+     */
+    private static final String ELAPSED =
+        "status = 'CONFIRMED' AND appointment_date BETWEEN ? AND ? " +
+        "AND (appointment_date < ? OR HOUR(appointment_time) * 60 + MINUTE(appointment_time) " +
+        "+ COALESCE(total_duration_minutes, 0) <= ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DateLockStripes dateLockStripes;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Scheduled(cron = "${barberia.end-of-day.cron:0 30 23 * * *}")
+    public void closeElapsedDaily() {
+        closeElapsed();
+    }
+
+    /**
+     * Pasa al estado configurado las reservas confirmadas que terminaron hasta ahora
+     */
+    public EndOfDayResultDto closeElapsed() {
+        return closeElapsed(barberiaProperties.getEndOfDay().getElapsedStatus());
+    }
+
+    /**
+     * Pasa al estado indicado las reservas confirmadas que terminaron hasta ahora
+     */
+    public EndOfDayResultDto closeElapsed(AppointmentStatus status) {
+        if (status != AppointmentStatus.COMPLETED && status != AppointmentStatus.NO_SHOW) {
+            throw new IllegalArgumentException("Las reservas vencidas solo pueden pasar a COMPLETED o NO_SHOW");
+        }
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now();
+        LocalDate today = cutoff.toLocalDate();
+        int batchDays = barberiaProperties.getEndOfDay().getBatchDays();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        EndOfDayResultDto result = new EndOfDayResultDto();
+        result.setCutoff(cutoff);
+        result.setStatus(status);
+        LocalDate from = firstPendingDate(LocalDate.EPOCH, today);
+        while (from != null) {
+            LocalDate chunkStart = from;
+            LocalDate chunkEnd = from.plusDays(batchDays - 1).isAfter(today) ? today : from.plusDays(batchDays - 1);
+            transaction.executeWithoutResult(tx -> closeChunk(chunkStart, chunkEnd, cutoff, status, result));
+            from = chunkEnd.isBefore(today) ? firstPendingDate(chunkEnd.plusDays(1), today) : null;
+        }
+
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Cierre de reservas hasta {}: {} reservas de {} días pasaron a {} ({} claims liberados) en {} ms",
+            cutoff, result.getAppointments(), result.getDays(), status, result.getReleasedClaims(),
+            result.getElapsedMillis());
+        return result;
+    }
+
+    private LocalDate firstPendingDate(LocalDate from, LocalDate today) {
+        return jdbcTemplate.queryForObject(
+            "SELECT MIN(appointment_date) FROM appointments WHERE status = 'CONFIRMED' " +
+            "AND appointment_date BETWEEN ? AND ?", LocalDate.class, from, today);
+    }
+
+    private void closeChunk(LocalDate startDate, LocalDate endDate, LocalDateTime cutoff,
+                            AppointmentStatus status, EndOfDayResultDto result) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        dateLockStripes.lockAllUntilCompletion(dates);
+
+        Object[] elapsed = {startDate, endDate, cutoff.toLocalDate(), SlotOccupancyIndex.toMinute(cutoff.toLocalTime())};
+        List<OccupiedSlot> slots = jdbcTemplate.query(
+            "SELECT appointment_date, appointment_time, total_duration_minutes FROM appointments WHERE " + ELAPSED,
+            (rs, row) -> new OccupiedSlot(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalTime.class),
+                (Integer) rs.getObject(3)),
+            elapsed);
+        if (slots.isEmpty()) {
+            return;
+        }
+
+        int claims = jdbcTemplate.update(
+            "DELETE FROM slot_claims WHERE appointment_id IN (SELECT id FROM appointments WHERE " + ELAPSED + ")",
+            elapsed);
+        Object[] update = new Object[elapsed.length + 1];
+        update[0] = status.name();
+        System.arraycopy(elapsed, 0, update, 1, elapsed.length);
+        int updated = jdbcTemplate.update("UPDATE appointments SET status = ? WHERE " + ELAPSED, update);
+
+        Set<LocalDate> changed = new TreeSet<>();
+        for (OccupiedSlot slot : slots) {
+            // release deshace la liberación si la transacción no hace commit
+            slotOccupancyIndex.release(slot.getAppointmentDate(), slot.getAppointmentTime(), slot.getTotalDurationMinutes());
+            changed.add(slot.getAppointmentDate());
+        }
+        rollupService.refresh(startDate, endDate);
+        agendaVersions.changed(changed);
+
+        result.setDays(result.getDays() + changed.size());
+        result.setAppointments(result.getAppointments() + updated);
+        result.setReleasedClaims(result.getReleasedClaims() + claims);
+    }
+}
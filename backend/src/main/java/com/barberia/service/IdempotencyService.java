@@ -0,0 +1,249 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.AppointmentDto;
+import com.barberia.model.IdempotencyRecord;
+import com.barberia.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reservas con clave de idempotencia (header Idempotency-Key de POST /appointments).
+ *
+ * La primera vez que llega una clave se crea la reserva y, en la misma transacción, se
+ * guarda su respuesta en idempotency_keys. Los reintentos con la misma clave devuelven
+ * esa respuesta sin pasar por las validaciones ni las consultas de conflicto: primero se
+ * busca en memoria y, si no está (otra instancia, un reinicio o una clave desalojada),
+ * por clave primaria en la base. Los pedidos simultáneos con la misma clave esperan el
+ * resultado del primero en lugar de ejecutarse, y reciben también su error si falla.
+ *
+ * Las claves vencen a barberia.idempotency.ttl. En memoria se guardan como mucho
+ * barberia.idempotency.max-entries; al llenarse se desalojan las vencidas y, si no
+ * alcanza, cualquiera ya resuelta, que sigue disponible en la base.
+ */
+@Component
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong replays = new AtomicLong();
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Crea la reserva una sola vez por clave; los reintentos devuelven la reserva original.
+     * Falla si la clave ya se usó con otros datos de reserva.
+     */
+    public AppointmentDto createAppointment(String key, Long clientId, List<Long> serviceIds,
+                                            LocalDate date, LocalTime time, String notes) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("La clave de idempotencia debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String requestHash = requestHash(clientId, serviceIds, date, time, notes);
+        long now = System.currentTimeMillis();
+
+        Entry entry = new Entry(requestHash, now + barberiaProperties.getIdempotency().getTtl().toMillis());
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (existing.expiresAt > now) {
+                return replay(existing, requestHash);
+            }
+            if (entries.replace(key, existing, entry)) {
+                break;
+            }
+        }
+        evictIfFull(now);
+
+        try {
+            AppointmentDto result = execute(key, requestHash, clientId, serviceIds, date, time, notes);
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // Sin respuesta guardada la clave queda libre: el próximo reintento vuelve a intentar la reserva
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reintentos respondidos con una reserva ya creada
+     */
+    public long replayCount() {
+        return replays.get();
+    }
+
+    public int cachedKeys() {
+        return entries.size();
+    }
+
+    /**
+     * Borra las claves vencidas de memoria y de la base
+     */
+    @Scheduled(fixedDelayString = "${barberia.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now && entry.result.isDone());
+        int deleted = new TransactionTemplate(transactionManager)
+            .execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted > 0) {
+            log.info("Se borraron {} claves de idempotencia vencidas", deleted);
+        }
+    }
+
+    private AppointmentDto execute(String key, String requestHash, Long clientId, List<Long> serviceIds,
+                                   LocalDate date, LocalTime time, String notes) {
+        LocalDateTime now = LocalDateTime.now();
+        AppointmentDto stored = findStored(key, requestHash, now);
+        if (stored != null) {
+            return stored;
+        }
+
+        try {
+            // La reserva y su respuesta se confirman juntas; la reserva se une a esta transacción
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                AppointmentDto created = appointmentService.createAppointment(clientId, serviceIds, date, time, notes);
+                store(key, requestHash, created, now);
+                return created;
+            });
+        } catch (RuntimeException e) {
+            // Otra instancia pudo haber creado la reserva con la misma clave al mismo tiempo
+            stored = findStored(key, requestHash, LocalDateTime.now());
+            if (stored != null) {
+                return stored;
+            }
+            throw e;
+        }
+    }
+
+    private AppointmentDto findStored(String key, String requestHash, LocalDateTime now) {
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElse(null);
+        if (record == null || !record.getExpiresAt().isAfter(now)) {
+            return null;
+        }
+        checkSameRequest(record.getRequestHash(), requestHash);
+        replays.incrementAndGet();
+        try {
+            return objectMapper.readValue(record.getResponse(), AppointmentDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada de la clave " + key, e);
+        }
+    }
+
+    private void store(String key, String requestHash, AppointmentDto created, LocalDateTime now) {
+        // Una fila vencida que todavía no se purgó no debe impedir reutilizar la clave
+        idempotencyRecordRepository.deleteIfExpired(key, now);
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(key);
+        record.setRequestHash(requestHash);
+        record.setAppointmentId(created.getId());
+        try {
+            record.setResponse(objectMapper.writeValueAsString(created));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la reserva", e);
+        }
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(barberiaProperties.getIdempotency().getTtl()));
+        // Se inserta (ver IdempotencyRecord.isNew): si otra instancia ya guardó la clave, falla la clave primaria
+        idempotencyRecordRepository.saveAndFlush(record);
+    }
+
+    private AppointmentDto replay(Entry existing, String requestHash) {
+        checkSameRequest(existing.requestHash, requestHash);
+        try {
+            AppointmentDto result = existing.result.join();
+            replays.incrementAndGet();
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IllegalArgumentException("La clave de idempotencia ya se usó con otros datos de reserva");
+        }
+    }
+
+    private void evictIfFull(long now) {
+        int maxEntries = barberiaProperties.getIdempotency().getMaxEntries();
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt <= now && entry.result.isDone());
+        // Se desaloja hasta el 90% para no recorrer el mapa en cada clave nueva
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries * 9 / 10 && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String requestHash(Long clientId, List<Long> serviceIds, LocalDate date, LocalTime time,
+                                      String notes) {
+        String request = clientId + "|" + serviceIds + "|" + date + "|" + time + "|" + (notes == null ? "" : notes);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Clave en memoria: el resultado queda pendiente mientras la primera ejecución no termina
+     */
+    private static final class Entry {
+        private final String requestHash;
+        private final long expiresAt;
+        private final CompletableFuture<AppointmentDto> result = new CompletableFuture<>();
+
+        Entry(String requestHash, long expiresAt) {
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
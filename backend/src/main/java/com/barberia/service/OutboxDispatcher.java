@@ -0,0 +1,200 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.model.OutboxMessageType;
+import com.barberia.notification.Notification;
+import com.barberia.notification.NotificationSender;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envía en segundo plano las notificaciones de la tabla outbox.
+ *
+ * Un único hilo toma por lotes los mensajes pendientes cuyo nextAttemptAt ya pasó (con
+ * FOR UPDATE, y corriendo nextAttemptAt por barberia.outbox.lease para que otra instancia
+ * no los tome mientras se envían), los entrega al NotificationSender fuera de toda
+ * transacción y registra el resultado del lote con sentencias masivas. Los fallidos se
+ * reintentan con espera exponencial hasta barberia.outbox.max-attempts, y después quedan
+ * FAILED. Si la instancia se cae a mitad de un envío, el lote se vuelve a enviar cuando
+ * vence la reserva: la entrega es al menos una vez.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final BarberiaProperties.Outbox config;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transaction;
+
+    private final NotificationSender notificationSender;
+
+    private final ScheduledExecutorService poller;
+
+    public OutboxDispatcher(BarberiaProperties barberiaProperties, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, NotificationSender notificationSender) {
+        this.config = barberiaProperties.getOutbox();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.notificationSender = notificationSender;
+        this.poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-dispatcher").daemon(true).factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = config.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Envía los mensajes listos, lote por lote, hasta que no quede ninguno
+     */
+    public void poll() {
+        try {
+            int sent;
+            do {
+                sent = dispatchBatch();
+            } while (sent == config.getBatchSize());
+        } catch (RuntimeException e) {
+            // Un error de base no debe cancelar la tarea periódica
+            log.warn("Error al despachar la outbox", e);
+        }
+    }
+
+    /**
+     * Notificaciones entregadas desde que arrancó la instancia
+     */
+    public long deliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Intentos de envío fallidos desde que arrancó la instancia
+     */
+    public long failureCount() {
+        return failures.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    private int dispatchBatch() {
+        List<Notification> batch = transaction.execute(tx -> claim(LocalDateTime.now()));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, String> failed;
+        try {
+            failed = notificationSender.send(batch);
+        } catch (Exception e) {
+            log.warn("Falló el envío de un lote de {} notificaciones", batch.size(), e);
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            failed = new HashMap<>();
+            for (Notification notification : batch) {
+                failed.put(notification.getId(), error);
+            }
+        }
+        Map<Long, String> failedIds = failed;
+        transaction.executeWithoutResult(tx -> record(batch, failedIds, LocalDateTime.now()));
+        return batch.size();
+    }
+
+    private List<Notification> claim(LocalDateTime now) {
+        List<Notification> batch = jdbcTemplate.query(
+            "SELECT id, type, recipient, payload, attempts FROM outbox_messages " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE",
+            (rs, row) -> new Notification(rs.getLong(1), OutboxMessageType.valueOf(rs.getString(2)),
+                rs.getString(3), rs.getString(4), rs.getInt(5)),
+            now, config.getBatchSize());
+        if (!batch.isEmpty()) {
+            List<Object> args = new ArrayList<>(batch.size() + 1);
+            args.add(now.plus(config.getLease()));
+            for (Notification notification : batch) {
+                args.add(notification.getId());
+            }
+            jdbcTemplate.update("UPDATE outbox_messages SET next_attempt_at = ? WHERE id IN " + in(batch.size()),
+                args.toArray());
+        }
+        return batch;
+    }
+
+    private void record(List<Notification> batch, Map<Long, String> failed, LocalDateTime now) {
+        List<Object> deliveredArgs = new ArrayList<>(batch.size() + 1);
+        deliveredArgs.add(now);
+        List<Object[]> failedArgs = new ArrayList<>(failed.size());
+        for (Notification notification : batch) {
+            if (!failed.containsKey(notification.getId())) {
+                deliveredArgs.add(notification.getId());
+                continue;
+            }
+            int attempts = notification.getAttempts() + 1;
+            String status = attempts >= config.getMaxAttempts() ? "FAILED" : "PENDING";
+            failedArgs.add(new Object[]{attempts, status, now.plus(backoff(attempts)),
+                truncate(failed.get(notification.getId())), notification.getId()});
+        }
+
+        int deliveredCount = deliveredArgs.size() - 1;
+        if (deliveredCount > 0) {
+            jdbcTemplate.update("UPDATE outbox_messages SET status = 'DELIVERED', delivered_at = ?, " +
+                "attempts = attempts + 1 WHERE id IN " + in(deliveredCount), deliveredArgs.toArray());
+            delivered.addAndGet(deliveredCount);
+        }
+        if (!failedArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE outbox_messages SET attempts = ?, status = ?, next_attempt_at = ?, " +
+                "last_error = ? WHERE id = ?", failedArgs);
+            failures.addAndGet(failedArgs.size());
+        }
+    }
+
+    /**
+     * Espera antes del próximo intento: initial-backoff duplicado por cada intento fallido,
+     * hasta max-backoff
+     */
+    private Duration backoff(int attempts) {
+        Duration max = config.getMaxBackoff();
+        Duration backoff = config.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(max) > 0 ? max : backoff;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static String in(int size) {
+        return "(" + String.join(", ", Collections.nCopies(size, "?")) + ")";
+    }
+}
@@ -0,0 +1,102 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.model.Appointment;
+import com.barberia.model.OutboxMessage;
+import com.barberia.model.OutboxMessageType;
+import com.barberia.model.Service;
+import com.barberia.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe en la tabla outbox las notificaciones de una reserva, dentro de la transacción
+ * que la crea o le cambia el estado. El envío lo hace OutboxDispatcher en segundo plano,
+ * así que al pedido de reserva solo le cuesta un insert en lote.
+ */
+@Component
+public class OutboxService {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    /**
+     * Encola la confirmación de una reserva nueva y su recordatorio, si todavía falta
+     * más que la anticipación configurada para el horario reservado
+     */
+    public void bookingConfirmed(Appointment appointment) {
+        bookingsConfirmed(List.of(appointment));
+    }
+
+    /**
+     * Encola en un solo lote la confirmación y el recordatorio de varias reservas nuevas
+     */
+    public void bookingsConfirmed(List<Appointment> appointments) {
+        LocalDateTime now = LocalDateTime.now();
+        Duration reminderLead = barberiaProperties.getOutbox().getReminderLead();
+
+        List<OutboxMessage> messages = new ArrayList<>(2 * appointments.size());
+        for (Appointment appointment : appointments) {
+            String payload = payload(appointment);
+            String recipient = appointment.getClient().getEmail();
+            messages.add(new OutboxMessage(OutboxMessageType.BOOKING_CONFIRMED, appointment.getId(), recipient, payload, now));
+            LocalDateTime remindAt = LocalDateTime.of(appointment.getAppointmentDate(), appointment.getAppointmentTime())
+                .minus(reminderLead);
+            if (remindAt.isAfter(now)) {
+                messages.add(new OutboxMessage(OutboxMessageType.BOOKING_REMINDER, appointment.getId(), recipient, payload, remindAt));
+            }
+        }
+        outboxMessageRepository.saveAll(messages);
+    }
+
+    /**
+     * Encola el aviso de cancelación y descarta el recordatorio pendiente
+     */
+    public void bookingCancelled(Appointment appointment) {
+        outboxMessageRepository.discardPending(appointment.getId(), OutboxMessageType.BOOKING_REMINDER);
+        outboxMessageRepository.save(new OutboxMessage(OutboxMessageType.BOOKING_CANCELLED, appointment.getId(),
+            appointment.getClient().getEmail(), payload(appointment), LocalDateTime.now()));
+    }
+
+    /**
+     * Descarta el recordatorio pendiente de una reserva que ya no lo necesita
+     */
+    public void discardReminder(Appointment appointment) {
+        outboxMessageRepository.discardPending(appointment.getId(), OutboxMessageType.BOOKING_REMINDER);
+    }
+
+    private String payload(Appointment appointment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("appointmentId", appointment.getId());
+        payload.put("clientName", appointment.getClient().getFirstName() + " " + appointment.getClient().getLastName());
+        payload.put("date", appointment.getAppointmentDate().toString());
+        payload.put("time", appointment.getAppointmentTime().toString());
+        List<String> services = new ArrayList<>();
+        for (Service service : appointment.getServices()) {
+            services.add(service.getName());
+        }
+        payload.put("services", services);
+        payload.put("totalPrice", appointment.getTotalPrice());
+        payload.put("durationMinutes", appointment.getTotalDurationMinutes());
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la notificación", e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.barberia.service;
+
+import com.barberia.dto.AppointmentDto;
+import com.barberia.dto.RecurringSeriesRequest;
+import com.barberia.dto.RecurringSeriesResultDto;
+import com.barberia.dto.SeriesConflictDto;
+import com.barberia.model.Appointment;
+import com.barberia.model.Client;
+import com.barberia.repository.AppointmentRepository;
+import com.barberia.repository.ClientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reservas recurrentes ("cada dos semanas a las 10:00").
+ *
+ * La regla se expande a fechas en memoria y todas se validan juntas, en una sola
+ * transacción con los locks de esas fechas tomados: el horario de atención se consulta
+ * en el calendario compilado, la ocupación del rango se carga de una vez en el índice y
+ * las fechas que el cliente ya tiene reservadas salen de una sola consulta. Las fechas
+ * aceptadas se insertan en lote (reservas, slot_claims, rollups y notificaciones) y las
+ * que chocan se informan con el motivo, sin impedir las demás. Una serie de un año
+ * cuesta así unas pocas consultas en lugar de las de una reserva por fecha.
+ */
+@Service
+public class RecurringSeriesService {
+
+    /**
+     * Alcance máximo de una serie desde su primera fecha
+     */
+    public static final int MAX_HORIZON_DAYS = 366;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private DateLockStripes dateLockStripes;
+
+    @Autowired
+    private SlotClaimService slotClaimService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AgendaVersions agendaVersions;
+
+    @Autowired
+    private SlotEventBroadcaster slotEventBroadcaster;
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    /**
+     * Crea las reservas de la serie que no chocan y devuelve las que sí
+     */
+    @Transactional
+    public RecurringSeriesResultDto createSeries(RecurringSeriesRequest request) {
+        long started = System.nanoTime();
+        List<LocalDate> dates = expand(request);
+        LocalTime time = request.getTime();
+
+        ServiceCatalog.BundleQuote quote = serviceCatalog.quote(request.getServiceIds());
+        int duration = quote.getTotalDurationMinutes();
+        Client client = clientRepository.findById(request.getClientId())
+            .orElseThrow(() -> new BookingRejectedException(BookingOutcome.CLIENT_NOT_FOUND, "Cliente no encontrado"));
+
+        // La hora es la misma para todas las fechas: fuera de la grilla no se reserva ninguna
+        slotClaimService.requireOnGrid(time);
+
+        RecurringSeriesResultDto result = new RecurringSeriesResultDto(dates.size());
+        // Con las fechas bloqueadas, la ocupación leída no cambia hasta el commit
+        dateLockStripes.lockAllUntilCompletion(dates);
+        LocalDate first = dates.get(0);
+        LocalDate last = dates.get(dates.size() - 1);
+        slotOccupancyIndex.loadRange(first, last);
+        Set<LocalDate> bookedDates = new HashSet<>(
+            appointmentRepository.findBookedDatesByClient(client.getId(), first, last));
+
+        List<Appointment> accepted = new ArrayList<>();
+        for (LocalDate date : dates) {
+            BookingOutcome outcome = check(date, time, duration, bookedDates);
+            if (outcome != BookingOutcome.CONFIRMED) {
+                bookingMetrics.record(outcome);
+                result.getConflicts().add(new SeriesConflictDto(date, reason(outcome)));
+                continue;
+            }
+            Appointment appointment = new Appointment(client, quote.getServices(), date, time,
+                quote.getTotalPrice(), duration);
+            appointment.setNotes(request.getNotes());
+            accepted.add(appointment);
+            // occupy deshace la ocupación si la transacción no hace commit
+            slotOccupancyIndex.occupy(date, time, duration);
+            slotEventBroadcaster.slotTaken(date, time, duration);
+            bookingMetrics.recordAfterCommit(BookingOutcome.CONFIRMED);
+        }
+
+        if (!accepted.isEmpty()) {
+            appointmentRepository.saveAll(accepted);
+            slotClaimService.claimAll(accepted);
+            rollupService.addedAll(accepted);
+            outboxService.bookingsConfirmed(accepted);
+            Set<LocalDate> changed = new HashSet<>();
+            for (Appointment appointment : accepted) {
+                changed.add(appointment.getAppointmentDate());
+                result.getCreated().add(AppointmentDto.from(appointment));
+            }
+            agendaVersions.changed(changed);
+        }
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Fechas de la serie, en orden; falla si la regla es inválida o excede el alcance máximo
+     */
+    List<LocalDate> expand(RecurringSeriesRequest request) {
+        LocalDate start = request.getStartDate();
+        if (start == null || request.getTime() == null || request.getFrequency() == null) {
+            throw new IllegalArgumentException("La fecha de inicio, la hora y la frecuencia son obligatorias");
+        }
+        if (request.getClientId() == null || request.getServiceIds() == null || request.getServiceIds().isEmpty()) {
+            throw new IllegalArgumentException("El cliente y los servicios son obligatorios");
+        }
+        if (start.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La serie no puede empezar en el pasado");
+        }
+        if (request.getInterval() < 1) {
+            throw new IllegalArgumentException("El intervalo debe ser al menos 1");
+        }
+        if (request.getCount() != null && request.getCount() < 1) {
+            throw new IllegalArgumentException("La cantidad de reservas debe ser al menos 1");
+        }
+
+        LocalDate horizon = start.plusDays(MAX_HORIZON_DAYS - 1);
+        LocalDate until = request.getUntil() != null ? request.getUntil()
+            : request.getCount() != null ? horizon : start.plusYears(1).minusDays(1);
+        if (until.isBefore(start) || until.isAfter(horizon)) {
+            throw new IllegalArgumentException("La serie debe terminar dentro de los " + MAX_HORIZON_DAYS
+                + " días desde su inicio");
+        }
+
+        int limit = request.getCount() != null ? request.getCount() : Integer.MAX_VALUE;
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; dates.size() < limit; i++) {
+            long step = (long) i * request.getInterval();
+            // Se calcula desde el inicio para que los meses cortos no corran las fechas siguientes
+            LocalDate date = switch (request.getFrequency()) {
+                case DAILY -> start.plusDays(step);
+                case WEEKLY -> start.plusWeeks(step);
+                case MONTHLY -> start.plusMonths(step);
+            };
+            if (date.isAfter(until)) {
+                break;
+            }
+            dates.add(date);
+        }
+        if (request.getUntil() == null && request.getCount() != null && dates.size() < limit) {
+            throw new IllegalArgumentException("La serie debe terminar dentro de los " + MAX_HORIZON_DAYS
+                + " días desde su inicio");
+        }
+        return dates;
+    }
+
+    private BookingOutcome check(LocalDate date, LocalTime time, int duration, Set<LocalDate> bookedDates) {
+        if (!businessCalendar.isWithinHours(date, time, duration)) {
+            return BookingOutcome.OUTSIDE_BUSINESS_HOURS;
+        }
+        if (bookedDates.contains(date)) {
+            return BookingOutcome.CLIENT_ALREADY_BOOKED;
+        }
+        if (!slotOccupancyIndex.isFree(date, time, duration)) {
+            return BookingOutcome.SLOT_CONFLICT;
+        }
+        return BookingOutcome.CONFIRMED;
+    }
+
+    private static String reason(BookingOutcome outcome) {
+        return switch (outcome) {
+            case OUTSIDE_BUSINESS_HOURS -> "El horario seleccionado está fuera del horario de atención";
+            case CLIENT_ALREADY_BOOKED -> "El cliente ya tiene una reserva para esta fecha";
+            case SLOT_CONFLICT -> "El horario seleccionado no está disponible";
+            default -> outcome.name();
+        };
+    }
+}
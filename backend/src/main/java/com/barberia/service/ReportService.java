@@ -0,0 +1,110 @@
+package com.barberia.service;
+
+import com.barberia.dto.RevenuePeriodDto;
+import com.barberia.dto.ServiceRevenueDto;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.DailyRollup;
+import com.barberia.repository.DailyRollupRepository;
+import com.barberia.repository.ServiceRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reportes de ingresos y ocupación para el panel de administración. Solo leen los
+ * rollups (una fila por día y estado), nunca la tabla appointments.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportService {
+
+    public enum GroupBy { DAY, WEEK, MONTH }
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private ServiceRollupRepository serviceRollupRepository;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    /**
+     * Ingresos y ocupación del rango, agrupados por día, semana (de lunes a domingo) o mes.
+     * Los períodos de los extremos se recortan al rango pedido.
+     */
+    public List<RevenuePeriodDto> getRevenue(LocalDate startDate, LocalDate endDate, GroupBy groupBy) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial");
+        }
+        List<DailyRollup> rollups = dailyRollupRepository.findInDateRange(startDate, endDate);
+
+        List<RevenuePeriodDto> periods = new ArrayList<>();
+        int next = 0;
+        for (LocalDate from = startDate; !from.isAfter(endDate); ) {
+            LocalDate to = periodEnd(from, groupBy);
+            if (to.isAfter(endDate)) {
+                to = endDate;
+            }
+            RevenuePeriodDto period = new RevenuePeriodDto();
+            period.setStartDate(from);
+            period.setEndDate(to);
+            period.setRevenue(BigDecimal.ZERO);
+            period.setPendingRevenue(BigDecimal.ZERO);
+            period.setOpenMinutes(businessCalendar.openMinutes(from, to));
+
+            // Los rollups vienen ordenados por fecha: cada período consume los suyos
+            for (; next < rollups.size() && !rollups.get(next).getRollupDate().isAfter(to); next++) {
+                add(period, rollups.get(next));
+            }
+            period.setUtilization(period.getOpenMinutes() > 0
+                ? (double) period.getBookedMinutes() / period.getOpenMinutes() : 0);
+            periods.add(period);
+            from = to.plusDays(1);
+        }
+        return periods;
+    }
+
+    /**
+     * Reservas, ingresos y minutos de cada servicio en el rango
+     */
+    public List<ServiceRevenueDto> getRevenueByService(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial");
+        }
+        return serviceRollupRepository.summarizeByService(startDate, endDate);
+    }
+
+    private static void add(RevenuePeriodDto period, DailyRollup rollup) {
+        switch (rollup.getStatus()) {
+            case COMPLETED -> {
+                period.setCompletedAppointments(period.getCompletedAppointments() + rollup.getAppointments());
+                period.setRevenue(period.getRevenue().add(rollup.getRevenue()));
+            }
+            case CONFIRMED -> {
+                period.setConfirmedAppointments(period.getConfirmedAppointments() + rollup.getAppointments());
+                period.setPendingRevenue(period.getPendingRevenue().add(rollup.getRevenue()));
+            }
+            case CANCELLED -> period.setCancelledAppointments(period.getCancelledAppointments() + rollup.getAppointments());
+            case NO_SHOW -> period.setNoShowAppointments(period.getNoShowAppointments() + rollup.getAppointments());
+        }
+        if (rollup.getStatus() != AppointmentStatus.CANCELLED) {
+            period.setBookedMinutes(period.getBookedMinutes() + rollup.getMinutes());
+        }
+    }
+
+    private static LocalDate periodEnd(LocalDate from, GroupBy groupBy) {
+        return switch (groupBy) {
+            case DAY -> from;
+            case WEEK -> from.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTH -> from.with(TemporalAdjusters.lastDayOfMonth());
+        };
+    }
+}
@@ -0,0 +1,289 @@
+package com.barberia.service;
+
+import com.barberia.dto.RollupRebuildDto;
+import com.barberia.model.Appointment;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.DailyRollup;
+import com.barberia.model.Service;
+import com.barberia.model.ServiceRollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene las tablas daily_rollups y service_rollups: por día (y por servicio) y por
+ * estado, la cantidad de reservas, su importe y sus minutos.
+ *
+ * Cada alta o cambio de estado suma y resta sus totales con un MERGE en la misma
+ * transacción que la reserva, mientras se tiene el lock de la fecha, de modo que los
+ * rollups nunca divergen de las reservas confirmadas. Para datos cargados por fuera
+ * del servicio, rebuild los recalcula desde appointments y appointments_archive.
+ *
+ * En daily_rollups el importe es el total guardado en la reserva. En service_rollups
+ * es el precio vigente de cada servicio, leído de la tabla services al escribir: al
+ * cambiar un precio o una duración, serviceChanged recalcula las fechas con reservas
+ * de ese servicio, y así lo que se resta al cancelar es lo mismo que quedó sumado.
+ */
+@Component
+public class RollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupService.class);
+
+    /**
+     * Días recalculados por transacción al reconstruir
+     */
+    private static final int REBUILD_CHUNK_DAYS = 31;
+
+    private static final String MERGE_DAILY =
+        "MERGE INTO daily_rollups r USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(20)), " +
+        "CAST(? AS BIGINT), CAST(? AS DECIMAL(14, 2)), CAST(? AS BIGINT))) " +
+        "d(rollup_date, status, appointments, revenue, minutes) " +
+        "ON r.rollup_date = d.rollup_date AND r.status = d.status " +
+        "WHEN MATCHED THEN UPDATE SET appointments = r.appointments + d.appointments, " +
+        "revenue = r.revenue + d.revenue, minutes = r.minutes + d.minutes " +
+        "WHEN NOT MATCHED THEN INSERT (rollup_date, status, appointments, revenue, minutes) " +
+        "VALUES (d.rollup_date, d.status, d.appointments, d.revenue, d.minutes)";
+
+    /**
+     * El importe y los minutos salen de la fila actual de services, no de la entidad en
+     * memoria, que puede venir de un catálogo cargado antes del último cambio de precio
+     */
+    private static final String MERGE_SERVICE =
+        "MERGE INTO service_rollups r USING (SELECT CAST(? AS DATE) AS rollup_date, s.id AS service_id, " +
+        "CAST(? AS VARCHAR(20)) AS status, CAST(? AS BIGINT) AS appointments, " +
+        "CAST(? AS BIGINT) * s.price AS revenue, CAST(? AS BIGINT) * s.duration_minutes AS minutes " +
+        "FROM services s WHERE s.id = ?) d " +
+        "ON r.rollup_date = d.rollup_date AND r.service_id = d.service_id AND r.status = d.status " +
+        "WHEN MATCHED THEN UPDATE SET appointments = r.appointments + d.appointments, " +
+        "revenue = r.revenue + d.revenue, minutes = r.minutes + d.minutes " +
+        "WHEN NOT MATCHED THEN INSERT (rollup_date, service_id, status, appointments, revenue, minutes) " +
+        "VALUES (d.rollup_date, d.service_id, d.status, d.appointments, d.revenue, d.minutes)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DateLockStripes dateLockStripes;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Suma una reserva nueva a los totales de su día y estado
+     */
+    public void added(Appointment appointment) {
+        addedAll(List.of(appointment));
+    }
+
+    /**
+     * Suma varias reservas nuevas con un lote por tabla
+     */
+    public void addedAll(Collection<Appointment> appointments) {
+        Deltas deltas = new Deltas();
+        for (Appointment appointment : appointments) {
+            deltas.add(appointment, appointment.getStatus(), 1);
+        }
+        deltas.apply();
+    }
+
+    /**
+     * Mueve una reserva de los totales de su estado anterior a los del actual
+     */
+    public void statusChanged(Appointment appointment, AppointmentStatus previous) {
+        if (previous == appointment.getStatus()) {
+            return;
+        }
+        Deltas deltas = new Deltas();
+        deltas.add(appointment, previous, -1);
+        deltas.add(appointment, appointment.getStatus(), 1);
+        deltas.apply();
+    }
+
+    /**
+     * Recalcula, después del commit, los rollups de las fechas con reservas del servicio,
+     * porque service_rollups las valúa con su precio y su duración vigentes
+     */
+    public void serviceChanged(Long serviceId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildService(serviceId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuildService(serviceId);
+            }
+        });
+    }
+
+    /**
+     * Recalcula desde appointments los rollups de todas las fechas con reservas
+     */
+    public RollupRebuildDto rebuildAll() {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+            "SELECT MIN(first_date) AS first_date, MAX(last_date) AS last_date FROM (" +
+            "SELECT MIN(appointment_date) AS first_date, MAX(appointment_date) AS last_date FROM appointments " +
+            "UNION ALL SELECT MIN(appointment_date), MAX(appointment_date) FROM appointments_archive)");
+        if (range.get("first_date") == null) {
+            return rebuild(LocalDate.now(), LocalDate.now());
+        }
+        return rebuild(((Date) range.get("first_date")).toLocalDate(), ((Date) range.get("last_date")).toLocalDate());
+    }
+
+    /**
+     * Recalcula desde appointments los rollups del rango, por tramos de días en
+     * transacciones separadas y con las fechas de cada tramo bloqueadas
+     */
+    public RollupRebuildDto rebuild(LocalDate startDate, LocalDate endDate) {
+        long started = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Nuevas también cuando se llama desde afterCommit, con la transacción anterior todavía ligada
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        long rows = 0;
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = from.plusDays(REBUILD_CHUNK_DAYS)) {
+            LocalDate chunkStart = from;
+            LocalDate chunkEnd = from.plusDays(REBUILD_CHUNK_DAYS - 1).isAfter(endDate) ? endDate : from.plusDays(REBUILD_CHUNK_DAYS - 1);
+            Integer inserted = transaction.execute(status -> rebuildChunk(chunkStart, chunkEnd));
+            rows += inserted == null ? 0 : inserted;
+        }
+
+        RollupRebuildDto result = new RollupRebuildDto();
+        result.setStartDate(startDate);
+        result.setEndDate(endDate);
+        result.setDays(Math.max(endDate.toEpochDay() - startDate.toEpochDay() + 1, 0));
+        result.setRows(rows);
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Rollups de {} a {} reconstruidos: {} filas en {} ms", startDate, endDate, rows, result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Completa los rollups de una base que ya tenía reservas antes de que existieran
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        Boolean missing = jdbcTemplate.queryForObject(
+            "SELECT NOT EXISTS (SELECT 1 FROM daily_rollups) AND (EXISTS (SELECT 1 FROM appointments) " +
+            "OR EXISTS (SELECT 1 FROM appointments_archive))", Boolean.class);
+        if (Boolean.TRUE.equals(missing)) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Recalcula los rollups del rango dentro de la transacción actual, para cambios hechos
+     * con sentencias masivas; quien llama ya tiene tomados los locks de esas fechas
+     */
+    public int refresh(LocalDate startDate, LocalDate endDate) {
+        jdbcTemplate.update("DELETE FROM daily_rollups WHERE rollup_date BETWEEN ? AND ?", startDate, endDate);
+        jdbcTemplate.update("DELETE FROM service_rollups WHERE rollup_date BETWEEN ? AND ?", startDate, endDate);
+        // Las reservas archivadas (ver ArchiveService) también cuentan
+        int rows = jdbcTemplate.update(
+            "INSERT INTO daily_rollups (rollup_date, status, appointments, revenue, minutes) " +
+            "SELECT appointment_date, status, COUNT(*), SUM(total_price), SUM(COALESCE(total_duration_minutes, 0)) " +
+            "FROM (SELECT appointment_date, status, total_price, total_duration_minutes FROM appointments " +
+            "WHERE appointment_date BETWEEN ? AND ? " +
+            "UNION ALL SELECT appointment_date, status, total_price, total_duration_minutes FROM appointments_archive " +
+            "WHERE appointment_date BETWEEN ? AND ?) a " +
+            "GROUP BY appointment_date, status", startDate, endDate, startDate, endDate);
+        rows += jdbcTemplate.update(
+            "INSERT INTO service_rollups (rollup_date, service_id, status, appointments, revenue, minutes) " +
+            "SELECT a.appointment_date, s.id, a.status, COUNT(*), SUM(s.price), SUM(s.duration_minutes) " +
+            "FROM (SELECT a.appointment_date, a.status, x.service_id FROM appointments a " +
+            "JOIN appointment_services x ON x.appointment_id = a.id WHERE a.appointment_date BETWEEN ? AND ? " +
+            "UNION ALL SELECT a.appointment_date, a.status, x.service_id FROM appointments_archive a " +
+            "JOIN appointment_services_archive x ON x.appointment_id = a.id WHERE a.appointment_date BETWEEN ? AND ?) a " +
+            "JOIN services s ON s.id = a.service_id " +
+            "GROUP BY a.appointment_date, s.id, a.status", startDate, endDate, startDate, endDate);
+        return rows;
+    }
+
+    private void rebuildService(Long serviceId) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+            "SELECT MIN(first_date) AS first_date, MAX(last_date) AS last_date FROM (" +
+            "SELECT MIN(a.appointment_date) AS first_date, MAX(a.appointment_date) AS last_date FROM appointments a " +
+            "JOIN appointment_services x ON x.appointment_id = a.id WHERE x.service_id = ? " +
+            "UNION ALL SELECT MIN(a.appointment_date), MAX(a.appointment_date) FROM appointments_archive a " +
+            "JOIN appointment_services_archive x ON x.appointment_id = a.id WHERE x.service_id = ?)",
+            serviceId, serviceId);
+        if (range.get("first_date") != null) {
+            rebuild(((Date) range.get("first_date")).toLocalDate(), ((Date) range.get("last_date")).toLocalDate());
+        }
+    }
+
+    private int rebuildChunk(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        dateLockStripes.lockAllUntilCompletion(dates);
+        return refresh(startDate, endDate);
+    }
+
+    /**
+     * Diferencias acumuladas por fila de rollup, para escribir cada fila una sola vez
+     */
+    private final class Deltas {
+        private final Map<DailyRollup.Key, Delta> daily = new LinkedHashMap<>();
+        private final Map<ServiceRollup.Key, Long> services = new LinkedHashMap<>();
+
+        void add(Appointment appointment, AppointmentStatus status, int sign) {
+            LocalDate date = appointment.getAppointmentDate();
+            int duration = appointment.getTotalDurationMinutes() == null ? 0 : appointment.getTotalDurationMinutes();
+            daily.computeIfAbsent(new DailyRollup.Key(date, status), key -> new Delta())
+                .add(sign, appointment.getTotalPrice(), duration);
+            for (Service service : appointment.getServices()) {
+                services.merge(new ServiceRollup.Key(date, service.getId(), status), (long) sign, Long::sum);
+            }
+        }
+
+        void apply() {
+            List<Object[]> dailyRows = new ArrayList<>(daily.size());
+            daily.forEach((key, delta) -> dailyRows.add(new Object[]{
+                key.getRollupDate(), key.getStatus().name(), delta.appointments, delta.revenue, delta.minutes}));
+            List<Object[]> serviceRows = new ArrayList<>(services.size());
+            services.forEach((key, count) -> {
+                if (count != 0) {
+                    serviceRows.add(new Object[]{
+                        key.getRollupDate(), key.getStatus().name(), count, count, count, key.getServiceId()});
+                }
+            });
+            jdbcTemplate.batchUpdate(MERGE_DAILY, dailyRows);
+            if (!serviceRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(MERGE_SERVICE, serviceRows);
+            }
+        }
+    }
+
+    private static final class Delta {
+        private long appointments;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long minutes;
+
+        void add(int sign, BigDecimal price, Integer duration) {
+            appointments += sign;
+            if (price != null) {
+                revenue = sign > 0 ? revenue.add(price) : revenue.subtract(price);
+            }
+            minutes += sign * (long) (duration == null ? 0 : duration);
+        }
+    }
+}
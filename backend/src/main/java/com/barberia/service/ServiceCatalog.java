@@ -0,0 +1,182 @@
+package com.barberia.service;
+
+import com.barberia.model.Service;
+import com.barberia.repository.ServiceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché en memoria del catálogo de servicios activos.
+ *
+ * Se carga al arrancar y se invalida cuando se escribe un servicio (ver
+ * {@link com.barberia.config.ServiceCatalogListener}). Además memoriza el precio y
+ * la duración total de cada combinación de servicios pedida, para que reservar o
+ * consultar disponibilidad no tenga que consultar la tabla services ni recalcular
+ * los totales.
+ */
+@Component
+public class ServiceCatalog {
+
+    private static final int MAX_CACHED_QUOTES = 1024;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    /**
+     * Catálogo y cotizaciones de una misma carga: al invalidar se descartan juntos, así
+     * una cotización calculada con la carga anterior no puede quedar en la nueva
+     */
+    private volatile Snapshot snapshot;
+
+    private long generation;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loadSnapshot();
+    }
+
+    /**
+     * Obtiene los servicios activos, ordenados por nombre
+     */
+    public Collection<Service> getActiveServices() {
+        return snapshot().services.values();
+    }
+
+    /**
+     * Obtiene el precio y la duración total de una combinación de servicios activos
+     */
+    public BundleQuote quote(List<Long> serviceIds) {
+        Snapshot current = snapshot();
+        BundleQuote quote = current.quotes.get(serviceIds);
+        if (quote != null) {
+            return quote;
+        }
+
+        List<Service> services = new ArrayList<>(serviceIds.size());
+        for (Long id : serviceIds) {
+            Service service = current.services.get(id);
+            if (service == null || services.contains(service)) {
+                throw new BookingRejectedException(BookingOutcome.UNKNOWN_SERVICE, "Algunos servicios no fueron encontrados");
+            }
+            services.add(service);
+        }
+        quote = new BundleQuote(services);
+
+        if (current.quotes.size() >= MAX_CACHED_QUOTES) {
+            current.quotes.clear();
+        }
+        current.quotes.put(List.copyOf(serviceIds), quote);
+        return quote;
+    }
+
+    /**
+     * Descarta el catálogo ahora y, si hay una transacción en curso, otra vez tras el
+     * commit para no quedarse con una recarga hecha antes de que el cambio sea visible
+     */
+    public void invalidate() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.services.size();
+    }
+
+    public int cachedQuotes() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.quotes.size();
+    }
+
+    private synchronized void clear() {
+        generation++;
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : loadSnapshot();
+    }
+
+    /**
+     * Lee el catálogo y lo publica, salvo que se haya invalidado mientras se leía: en ese
+     * caso la lectura sirve solo a quien la pidió y la próxima consulta vuelve a cargar
+     */
+    private Snapshot loadSnapshot() {
+        long loadedGeneration;
+        synchronized (this) {
+            loadedGeneration = generation;
+        }
+        Map<Long, Service> loaded = new LinkedHashMap<>();
+        for (Service service : serviceRepository.findAllActiveServicesOrdered()) {
+            loaded.put(service.getId(), service);
+        }
+        Snapshot fresh = new Snapshot(Collections.unmodifiableMap(loaded));
+        synchronized (this) {
+            if (generation == loadedGeneration) {
+                snapshot = fresh;
+            }
+        }
+        return fresh;
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, Service> services;
+        private final ConcurrentHashMap<List<Long>, BundleQuote> quotes = new ConcurrentHashMap<>();
+
+        Snapshot(Map<Long, Service> services) {
+            this.services = services;
+        }
+    }
+
+    /**
+     * Servicios de una reserva con su precio y duración total ya calculados
+     */
+    public static final class BundleQuote {
+        private final List<Service> services;
+        private final BigDecimal totalPrice;
+        private final int totalDurationMinutes;
+
+        BundleQuote(List<Service> services) {
+            this.services = List.copyOf(services);
+            this.totalPrice = services.stream()
+                .map(Service::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            this.totalDurationMinutes = services.stream()
+                .mapToInt(Service::getDurationMinutes)
+                .sum();
+        }
+
+        public List<Service> getServices() {
+            return services;
+        }
+
+        public BigDecimal getTotalPrice() {
+            return totalPrice;
+        }
+
+        public int getTotalDurationMinutes() {
+            return totalDurationMinutes;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.model.Appointment;
+import com.barberia.model.SlotClaim;
+import com.barberia.repository.SlotClaimRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra en la tabla slot_claims las unidades de tiempo que ocupa cada reserva
+ * confirmada, dentro de la misma transacción que la reserva.
+ *
+ * Las unidades son de barberia.booking.claim-unit-minutes, así que las reservas tienen
+ * que empezar sobre esa grilla: una que empezara a mitad de una unidad la reclamaría
+ * aunque el tramo anterior de la unidad ya estuviera tomado por otra reserva.
+ */
+@Component
+public class SlotClaimService {
+
+    @Autowired
+    private SlotClaimRepository slotClaimRepository;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    /**
+     * Indica si el horario empieza sobre la grilla de unidades reclamables
+     */
+    public boolean isOnGrid(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0
+            && SlotOccupancyIndex.toMinute(time) % barberiaProperties.getBooking().getClaimUnitMinutes() == 0;
+    }
+
+    /**
+     * Falla si el horario no empieza sobre la grilla de unidades reclamables
+     */
+    public void requireOnGrid(LocalTime time) {
+        if (!isOnGrid(time)) {
+            throw new BookingRejectedException(BookingOutcome.OFF_GRID_TIME, offGridMessage());
+        }
+    }
+
+    /**
+     * Motivo del rechazo de un horario fuera de la grilla
+     */
+    public String offGridMessage() {
+        return "El horario debe empezar en un múltiplo de "
+            + barberiaProperties.getBooking().getClaimUnitMinutes() + " minutos";
+    }
+
+    /**
+     * Reclama las unidades de la reserva; falla si alguna ya está tomada
+     */
+    public void claim(Appointment appointment) {
+        claimAll(List.of(appointment));
+    }
+
+    /**
+     * Reclama en lote las unidades de varias reservas; falla si alguna ya está tomada
+     */
+    public void claimAll(List<Appointment> appointments) {
+        List<SlotClaim> claims = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            claims.addAll(claimsFor(appointment));
+        }
+        try {
+            slotClaimRepository.saveAllAndFlush(claims);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia reservó el horario: el índice local de esos días quedó desactualizado
+            for (Appointment appointment : appointments) {
+                slotOccupancyIndex.invalidate(appointment.getAppointmentDate());
+            }
+            throw new BookingRejectedException(BookingOutcome.SLOT_CONFLICT, "El horario seleccionado no está disponible", e);
+        }
+    }
+
+    /**
+     * Libera las unidades reclamadas por la reserva
+     */
+    public void release(Appointment appointment) {
+        slotClaimRepository.deleteByAppointmentId(appointment.getId());
+    }
+
+    List<SlotClaim> claimsFor(Appointment appointment) {
+        int unit = barberiaProperties.getBooking().getClaimUnitMinutes();
+        int start = SlotOccupancyIndex.toMinute(appointment.getAppointmentTime());
+        int duration = appointment.getTotalDurationMinutes() == null ? 0 : appointment.getTotalDurationMinutes();
+        int end = Math.min(start + Math.max(duration, 1), SlotOccupancyIndex.MINUTES_PER_DAY);
+
+        List<SlotClaim> claims = new ArrayList<>();
+        for (int slotUnit = start / unit; slotUnit * unit < end; slotUnit++) {
+            claims.add(new SlotClaim(appointment.getId(), appointment.getAppointmentDate(), slotUnit));
+        }
+        return claims;
+    }
+}
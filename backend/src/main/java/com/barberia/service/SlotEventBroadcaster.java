@@ -0,0 +1,293 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.SlotEventDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envía por Server-Sent Events los horarios que se ocupan y se liberan a los clientes
+ * suscriptos a un rango de fechas.
+ *
+ * Una suscripción abierta no retiene ningún hilo: cada suscriptor tiene una cola acotada
+ * de eventos pendientes y solo ocupa un hilo de envío mientras hay algo que escribir. Los
+ * eventos se publican después del commit y se serializan una sola vez para todos. Si la
+ * cola de un suscriptor se llena porque no lee a tiempo, se lo desconecta; el cliente se
+ * vuelve a suscribir y recarga el rango.
+ *
+ * Los eventos son locales a la instancia: con varias instancias compartiendo la base,
+ * cada una avisa solo de las reservas que pasaron por ella.
+ */
+@Component
+public class SlotEventBroadcaster {
+
+    public static final String SUBSCRIBED = "subscribed";
+    public static final String SLOT_TAKEN = "slot-taken";
+    public static final String SLOT_FREED = "slot-freed";
+
+    private static final Logger log = LoggerFactory.getLogger(SlotEventBroadcaster.class);
+
+    private static final Event HEARTBEAT = new Event(null, null, null);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong eventIds = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final BarberiaProperties.Events config;
+
+    private final ObjectMapper objectMapper;
+
+    private final AgendaVersions agendaVersions;
+
+    private final ExecutorService senders;
+
+    private final ScheduledExecutorService heartbeats;
+
+    public SlotEventBroadcaster(BarberiaProperties barberiaProperties, ObjectMapper objectMapper,
+                                AgendaVersions agendaVersions,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.config = barberiaProperties.getEvents();
+        this.objectMapper = objectMapper;
+        this.agendaVersions = agendaVersions;
+        this.senders = virtualThreads
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("slot-events-", 0).factory())
+            : Executors.newFixedThreadPool(config.getSenderThreads(),
+                Thread.ofPlatform().name("slot-events-", 0).daemon(true).factory());
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("slot-events-heartbeat").daemon(true).factory());
+        long heartbeat = config.getHeartbeat().toMillis();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre una suscripción a los cambios de las fechas del rango. El primer evento trae
+     * el ETag actual del rango, para recargarlo con If-None-Match y aplicar desde ahí
+     * los eventos siguientes.
+     */
+    public SseEmitter subscribe(LocalDate startDate, LocalDate endDate) {
+        long days = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        if (days < 1 || days > config.getMaxRangeDays()) {
+            throw new IllegalArgumentException("El rango debe tener entre 1 y " + config.getMaxRangeDays() + " días");
+        }
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            throw new IllegalStateException("Se alcanzó el máximo de suscripciones");
+        }
+
+        SseEmitter emitter = new SseEmitter(config.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, startDate, endDate, config.getBufferSize());
+        emitter.onCompletion(subscriber::discard);
+        emitter.onError(e -> subscriber.discard());
+        emitter.onTimeout(() -> {
+            subscriber.discard();
+            emitter.complete();
+        });
+        subscribers.add(subscriber);
+        subscriber.offer(new Event(SUBSCRIBED, null, agendaVersions.etag(startDate, endDate)));
+        return emitter;
+    }
+
+    /**
+     * Avisa, cuando la transacción actual haga commit, que el horario quedó ocupado
+     */
+    public void slotTaken(LocalDate date, LocalTime time, Integer durationMinutes) {
+        publishAfterCommit(SLOT_TAKEN, new SlotEventDto(date, time, durationMinutes));
+    }
+
+    /**
+     * Avisa, cuando la transacción actual haga commit, que el horario quedó libre
+     */
+    public void slotFreed(LocalDate date, LocalTime time, Integer durationMinutes) {
+        publishAfterCommit(SLOT_FREED, new SlotEventDto(date, time, durationMinutes));
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Suscriptores desconectados por no leer los eventos a tiempo
+     */
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        senders.shutdown();
+    }
+
+    private void publishAfterCommit(String name, SlotEventDto slot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(name, slot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(name, slot);
+            }
+        });
+    }
+
+    private void publish(String name, SlotEventDto slot) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Event event;
+        try {
+            event = new Event(name, Long.toString(eventIds.incrementAndGet()), objectMapper.writeValueAsString(slot));
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo serializar el evento {}", name, e);
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.covers(slot.getDate())) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    /**
+     * Evento ya convertido al formato SSE, compartido por todos los suscriptores
+     */
+    private static final class Event {
+        private final Set<ResponseBodyEmitter.DataWithMediaType> frames;
+
+        Event(String name, String id, String data) {
+            SseEmitter.SseEventBuilder builder = name == null
+                ? SseEmitter.event().comment("")
+                : SseEmitter.event().name(name).data(data);
+            if (id != null) {
+                builder.id(id);
+            }
+            this.frames = builder.build();
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final BlockingQueue<Event> pending;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private boolean completed; // solo lo usa el envío en curso
+
+        Subscriber(SseEmitter emitter, LocalDate startDate, LocalDate endDate, int bufferSize) {
+            this.emitter = emitter;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.pending = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean covers(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+
+        void offer(Event event) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(event)) {
+                evictions.incrementAndGet();
+                log.debug("Suscriptor {} - {} desconectado por no leer los eventos", startDate, endDate);
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * Deja de enviarle eventos y cierra la conexión desde un hilo de envío, para no
+         * bloquear a quien publica si hay una escritura en curso
+         */
+        void close() {
+            discard();
+            schedule();
+        }
+
+        /**
+         * Deja de enviarle eventos; la conexión ya terminó o la cierra el contenedor
+         */
+        void discard() {
+            closed = true;
+            subscribers.remove(this);
+            pending.clear();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!closed && (event = pending.poll()) != null) {
+                    // Todo lo pendiente sale en una sola escritura
+                    Set<ResponseBodyEmitter.DataWithMediaType> frames = new LinkedHashSet<>(event.frames);
+                    while ((event = pending.poll()) != null) {
+                        frames.addAll(event.frames);
+                    }
+                    emitter.send(frames);
+                }
+                if (closed) {
+                    completed = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconectó; el contenedor completa la respuesta
+                completed = true;
+                discard();
+            } finally {
+                scheduled.set(false);
+                // Un cierre o un evento que llegó mientras se enviaba necesita otra pasada
+                if (closed ? !completed : !pending.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+}
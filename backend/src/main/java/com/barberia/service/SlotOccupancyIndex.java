@@ -0,0 +1,509 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.OccupiedSlot;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Índice en memoria de la ocupación de cada día, con resolución de un minuto.
+ *
+ * Cada día se carga de forma perezosa desde el repositorio (solo reservas CONFIRMED)
+ * la primera vez que se consulta, y a partir de ahí se mantiene actualizado con las
+ * altas, cancelaciones y finalizaciones, de modo que verificar disponibilidad no
+ * requiere ir a la base de datos. Si la transacción que modificó el índice hace
+ * rollback, el cambio se revierte.
+ *
+ * Solo se comparten entre pedidos los días desde hoy hasta
+ * barberia.booking.occupancy-horizon-days adelante; los que van quedando en el pasado se
+ * descartan cada noche. Dentro de una transacción, cada día consultado queda fijo hasta
+ * que termina: los de fuera de la ventana se cargan una sola vez para esa transacción,
+ * y un día compartido no se recarga a mitad de ella (la recarga leería las reservas que
+ * la propia transacción ya insertó y las contaría dos veces).
+ *
+ * Al terminar una transacción que modificó un día se incrementa la versión de ese día y
+ * se descarta cualquier carga publicada mientras tanto, que pudo leer el estado anterior
+ * al commit; una carga en curso compara la versión antes y después de publicar.
+ *
+ * Con varias instancias compartiendo la base, barberia.booking.occupancy-max-age
+ * limita cuánto tiempo se confía en un día cargado; la restricción única de
+ * slot_claims sigue siendo la que impide las reservas superpuestas.
+ */
+@Component
+public class SlotOccupancyIndex {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    private static final int VERSION_STRIPES = 256;
+
+    private final ConcurrentHashMap<LocalDate, DayOccupancy> days = new ConcurrentHashMap<>();
+
+    /**
+     * Versión de cada día, repartida en franjas: dos días de la misma franja se invalidan
+     * juntos, lo que solo cuesta alguna recarga de más
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * Indica si el intervalo [time, time + durationMinutes) está libre
+     */
+    public boolean isFree(LocalDate date, LocalTime time, int durationMinutes) {
+        int start = toMinute(time);
+        return day(date).isFree(start, end(start, durationMinutes));
+    }
+
+    /**
+     * Indica si el intervalo que empieza en el minuto del día indicado está libre
+     */
+    public boolean isFree(LocalDate date, int startMinute, int durationMinutes) {
+        return day(date).isFree(startMinute, end(startMinute, durationMinutes));
+    }
+
+    /**
+     * Primer inicio alineado a la grilla (origin + k * step), no anterior a from, cuyo
+     * intervalo de duración indicada está libre y termina antes de close; -1 si no hay
+     */
+    public int firstFit(LocalDate date, int from, int close, int origin, int step, int durationMinutes) {
+        return day(date).firstFit(from, close, origin, step, Math.max(durationMinutes, 1));
+    }
+
+    /**
+     * Minutos ocupados del día dentro de [from, to)
+     */
+    public int occupiedMinutes(LocalDate date, int from, int to) {
+        return day(date).occupied(from, Math.min(to, MINUTES_PER_DAY));
+    }
+
+    /**
+     * Carga con una única consulta todos los días del rango que aún no están en el índice
+     * ni fijos en la transacción actual
+     */
+    public void loadRange(LocalDate startDate, LocalDate endDate) {
+        TransactionDays pinned = transactionDays();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (pinned != null && pinned.days.containsKey(date)) {
+                continue;
+            }
+            if (inWindow(date)) {
+                DayOccupancy cached = isCached(date) ? days.get(date) : null;
+                if (cached == null) {
+                    missing.add(date);
+                } else if (pinned != null) {
+                    pinned.pin(date, cached, cached);
+                }
+            } else if (pinned != null) {
+                // Fuera de la ventana solo se guarda para la transacción; sin ella, day() lo lee cada vez
+                missing.add(date);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<LocalDate, Long> loadedVersions = new HashMap<>();
+        Map<LocalDate, DayOccupancy> loaded = new HashMap<>();
+        for (LocalDate date : missing) {
+            loadedVersions.put(date, version(date));
+            loaded.put(date, new DayOccupancy());
+        }
+        List<OccupiedSlot> slots = appointmentRepository.findOccupiedSlotsInDateRange(
+            missing.get(0), missing.get(missing.size() - 1), AppointmentStatus.CONFIRMED);
+        for (OccupiedSlot slot : slots) {
+            DayOccupancy day = loaded.get(slot.getAppointmentDate());
+            if (day != null) {
+                int start = toMinute(slot.getAppointmentTime());
+                day.add(start, end(start, slot.getTotalDurationMinutes()));
+            }
+        }
+        loaded.forEach((date, day) -> {
+            DayOccupancy current = inWindow(date) ? publish(date, day, loadedVersions.get(date)) : null;
+            if (pinned != null) {
+                pinned.pin(date, current != null ? current : day, current);
+            }
+        });
+    }
+
+    /**
+     * Marca un intervalo como ocupado. Si el día no está cargado no se carga: la reserva
+     * ya está en la base y la próxima carga la va a leer
+     */
+    public void occupy(LocalDate date, LocalTime time, Integer durationMinutes) {
+        int start = toMinute(time);
+        int end = end(start, durationMinutes);
+        change(date, day -> {
+            day.add(start, end);
+            onRollback(() -> day.remove(start, end));
+        });
+    }
+
+    /**
+     * Libera un intervalo previamente ocupado; si el día no está cargado, la próxima
+     * carga ya no va a leer la reserva
+     */
+    public void release(LocalDate date, LocalTime time, Integer durationMinutes) {
+        int start = toMinute(time);
+        int end = end(start, durationMinutes);
+        change(date, day -> {
+            day.remove(start, end);
+            onRollback(() -> day.add(start, end));
+        });
+    }
+
+    /**
+     * Descarta el día para que se vuelva a cargar desde el repositorio en el próximo acceso
+     */
+    public void invalidate(LocalDate date) {
+        versions.incrementAndGet(stripe(date));
+        days.remove(date);
+    }
+
+    /**
+     * Descarta todos los días, por ejemplo después de cargar datos por fuera del servicio
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        days.clear();
+    }
+
+    public int cachedDays() {
+        return days.size();
+    }
+
+    /**
+     * Descarta los días que quedaron fuera de la ventana del índice
+     */
+    @Scheduled(cron = "${barberia.booking.occupancy-evict-cron:0 5 0 * * *}")
+    public void evictOutsideWindow() {
+        days.keySet().removeIf(date -> !inWindow(date));
+    }
+
+    DayOccupancy day(LocalDate date) {
+        TransactionDays pinned = transactionDays();
+        if (pinned != null) {
+            DayOccupancy day = pinned.days.get(date);
+            if (day != null) {
+                return day;
+            }
+        }
+        DayOccupancy shared = null;
+        DayOccupancy day;
+        if (inWindow(date)) {
+            isCached(date); // descarta el día si superó la antigüedad máxima
+            shared = days.get(date);
+            if (shared == null) {
+                // La consulta se hace fuera del mapa: dentro de computeIfAbsent retendría el lock
+                // del bucket durante el acceso a la base y, con hilos virtuales, fijaría el hilo
+                // portador. Las reservas siempre se registran sobre el día que quedó publicado.
+                long version = version(date);
+                shared = publish(date, load(date), version);
+            }
+            day = shared;
+        } else {
+            // Fuera de la ventana no se comparte: el índice no crece con días pasados o lejanos
+            day = load(date);
+        }
+        if (pinned != null) {
+            pinned.pin(date, day, shared);
+        }
+        return day;
+    }
+
+    /**
+     * Publica un día recién cargado, salvo que otro ya lo haya hecho; si mientras se leía
+     * terminó una transacción que modificó el día, la carga se retira y solo sirve a quien
+     * la pidió
+     */
+    private DayOccupancy publish(LocalDate date, DayOccupancy loaded, long loadedVersion) {
+        DayOccupancy published = days.putIfAbsent(date, loaded);
+        if (published != null) {
+            return published;
+        }
+        if (version(date) != loadedVersion) {
+            days.remove(date, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Aplica un cambio al día fijo en la transacción o, si no lo hay, al compartido; al
+     * terminar la transacción descarta las cargas que pudieron leer el estado anterior
+     */
+    private void change(LocalDate date, Consumer<DayOccupancy> mutation) {
+        TransactionDays pinned = transactionDays();
+        DayOccupancy day = pinned != null ? pinned.days.get(date) : null;
+        DayOccupancy shared = pinned != null && pinned.days.containsKey(date) ? pinned.shared.get(date) : days.get(date);
+        if (day == null) {
+            day = shared;
+            if (day != null && pinned != null) {
+                pinned.pin(date, day, shared);
+            }
+        }
+        if (day != null) {
+            mutation.accept(day);
+        }
+        if (pinned == null) {
+            completed(date, shared);
+        } else if (pinned.changed.add(date) && pinned.changed.size() == 1) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    for (LocalDate changed : pinned.changed) {
+                        completed(changed, pinned.shared.get(changed));
+                    }
+                }
+            });
+        }
+    }
+
+    private void completed(LocalDate date, DayOccupancy expected) {
+        versions.incrementAndGet(stripe(date));
+        DayOccupancy current = days.get(date);
+        if (current != null && current != expected) {
+            days.remove(date, current);
+        }
+    }
+
+    /**
+     * Días fijos en la transacción actual, o null si no hay una
+     */
+    private TransactionDays transactionDays() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        TransactionDays pinned = (TransactionDays) TransactionSynchronizationManager.getResource(this);
+        if (pinned == null) {
+            pinned = new TransactionDays();
+            TransactionSynchronizationManager.bindResource(this, pinned);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SlotOccupancyIndex.this);
+                }
+            });
+        }
+        return pinned;
+    }
+
+    private long version(LocalDate date) {
+        return versions.get(stripe(date));
+    }
+
+    private static int stripe(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), (long) VERSION_STRIPES);
+    }
+
+    private boolean inWindow(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today)
+            && !date.isAfter(today.plusDays(barberiaProperties.getBooking().getOccupancyHorizonDays()));
+    }
+
+    /**
+     * Indica si el día está en el índice, descartándolo si superó la antigüedad máxima
+     */
+    private boolean isCached(LocalDate date) {
+        Duration maxAge = barberiaProperties.getBooking().getOccupancyMaxAge();
+        if (maxAge == null) {
+            return days.containsKey(date);
+        }
+        long now = System.nanoTime();
+        return days.computeIfPresent(date, (d, day) -> now - day.loadedAt > maxAge.toNanos() ? null : day) != null;
+    }
+
+    private DayOccupancy load(LocalDate date) {
+        List<OccupiedSlot> slots = appointmentRepository.findOccupiedSlots(date, AppointmentStatus.CONFIRMED);
+        DayOccupancy day = new DayOccupancy();
+        for (OccupiedSlot slot : slots) {
+            int start = toMinute(slot.getAppointmentTime());
+            day.add(start, end(start, slot.getTotalDurationMinutes()));
+        }
+        return day;
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int end(int start, Integer durationMinutes) {
+        int duration = durationMinutes == null ? 0 : durationMinutes;
+        return Math.min(start + Math.max(duration, 1), MINUTES_PER_DAY);
+    }
+
+    /**
+     * Días usados por una transacción: el que consulta y modifica, el compartido que había
+     * en el índice cuando lo fijó (o null) y los que modificó
+     */
+    private static final class TransactionDays {
+        private final Map<LocalDate, DayOccupancy> days = new HashMap<>();
+        private final Map<LocalDate, DayOccupancy> shared = new HashMap<>();
+        private final Set<LocalDate> changed = new HashSet<>();
+
+        void pin(LocalDate date, DayOccupancy day, DayOccupancy sharedDay) {
+            days.put(date, day);
+            shared.put(date, sharedDay);
+        }
+    }
+
+    /**
+     * Ocupación de un día: la lista de intervalos reservados y un bitset de minutos
+     * derivado de ella. Se guardan los intervalos para que liberar uno no borre
+     * minutos que siguen ocupados por otra reserva superpuesta.
+     */
+    static final class DayOccupancy {
+        private final long loadedAt = System.nanoTime();
+        private final long[] minutes = new long[(MINUTES_PER_DAY + 63) / 64];
+        private int[] intervals = new int[16];
+        private int size;
+
+        synchronized boolean isFree(int start, int end) {
+            return nextOccupied(start, end) < 0;
+        }
+
+        synchronized void add(int start, int end) {
+            if (size == intervals.length / 2) {
+                intervals = Arrays.copyOf(intervals, intervals.length * 2);
+            }
+            intervals[size * 2] = start;
+            intervals[size * 2 + 1] = end;
+            size++;
+            mark(start, end);
+        }
+
+        synchronized void remove(int start, int end) {
+            for (int i = 0; i < size; i++) {
+                if (intervals[i * 2] == start && intervals[i * 2 + 1] == end) {
+                    size--;
+                    intervals[i * 2] = intervals[size * 2];
+                    intervals[i * 2 + 1] = intervals[size * 2 + 1];
+                    Arrays.fill(minutes, 0L);
+                    for (int j = 0; j < size; j++) {
+                        mark(intervals[j * 2], intervals[j * 2 + 1]);
+                    }
+                    return;
+                }
+            }
+        }
+
+        synchronized int occupied(int from, int to) {
+            int count = 0;
+            for (int minute = from; minute < to; ) {
+                int word = minute >>> 6;
+                int upTo = Math.min(to, (word + 1) << 6);
+                long mask = (-1L << minute) & (upTo == (word + 1) << 6 ? -1L : ~(-1L << upTo));
+                count += Long.bitCount(minutes[word] & mask);
+                minute = upTo;
+            }
+            return count;
+        }
+
+        synchronized int firstFit(int from, int close, int origin, int step, int duration) {
+            int start = align(from, origin, step);
+            while (start + duration <= close) {
+                int occupied = nextOccupied(start, start + duration);
+                if (occupied < 0) {
+                    return start;
+                }
+                // Saltar directamente al final del tramo ocupado en lugar de probar cada slot
+                start = align(nextFree(occupied), origin, step);
+            }
+            return -1;
+        }
+
+        private static int align(int minute, int origin, int step) {
+            if (minute <= origin) {
+                return origin;
+            }
+            return origin + (minute - origin + step - 1) / step * step;
+        }
+
+        /**
+         * Primer minuto libre a partir de from, o MINUTES_PER_DAY si no hay ninguno
+         */
+        private int nextFree(int from) {
+            int word = from >>> 6;
+            long bits = ~minutes[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return Math.min((word << 6) + Long.numberOfTrailingZeros(bits), MINUTES_PER_DAY);
+                }
+                if (++word == minutes.length) {
+                    return MINUTES_PER_DAY;
+                }
+                bits = ~minutes[word];
+            }
+        }
+
+        /**
+         * Primer minuto ocupado en [from, to), o -1 si no hay ninguno
+         */
+        private int nextOccupied(int from, int to) {
+            if (from >= to) {
+                return -1;
+            }
+            int word = from >>> 6;
+            long bits = minutes[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    int minute = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    return minute < to ? minute : -1;
+                }
+                if (++word << 6 >= to) {
+                    return -1;
+                }
+                bits = minutes[word];
+            }
+        }
+
+        private void mark(int start, int end) {
+            for (int minute = start; minute < end; ) {
+                int word = minute >>> 6;
+                int upTo = Math.min(end, (word + 1) << 6);
+                long mask = (-1L << minute) & (upTo == (word + 1) << 6 ? -1L : ~(-1L << upTo));
+                minutes[word] |= mask;
+                minute = upTo;
+            }
+        }
+    }
+}
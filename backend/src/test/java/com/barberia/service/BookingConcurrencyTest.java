@@ -0,0 +1,286 @@
+package com.barberia.service;
+
+import com.barberia.config.BarberiaProperties;
+import com.barberia.dto.AppointmentDto;
+import com.barberia.model.AppointmentStatus;
+import com.barberia.model.Client;
+import com.barberia.model.Service;
+import com.barberia.repository.ClientRepository;
+import com.barberia.repository.ServiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reservas y cancelaciones concurrentes repartidas entre varias fechas y todos los horarios
+ * del día: ningún horario puede quedar con dos reservas confirmadas superpuestas ni una
+ * cancelación aplicarse dos veces.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.barberia=INFO",
+    "logging.level.org.springframework.security=INFO"
+})
+class BookingConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingConcurrencyTest.class);
+
+    private static final int CLIENTS = 400;
+
+    private static final int THREADS = 32;
+
+    private static final int DATES = 40;
+
+    /**
+     * Pedidos consecutivos por horario, que los hilos toman a la vez y compiten por él
+     */
+    private static final int ATTEMPTS = 5;
+
+    /**
+     * Cada media hora de 09:00 a 18:00, donde también entra el combo de 45 minutos
+     */
+    private static final List<LocalTime> SLOTS = slots(LocalTime.of(9, 0), LocalTime.of(18, 0));
+
+    private static final int REQUESTS = DATES * SLOTS.size() * ATTEMPTS;
+
+    private static final AtomicInteger DAYS_AHEAD = new AtomicInteger(2);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BarberiaProperties barberiaProperties;
+
+    private final List<Long> clientIds = new ArrayList<>();
+
+    private Long haircutId;
+
+    private Long comboId;
+
+    @BeforeEach
+    void setUp() {
+        if (serviceRepository.count() == 0) {
+            serviceRepository.save(new Service("Corte", "Corte de pelo", new BigDecimal("15.00"), 30, "scissors"));
+            serviceRepository.save(new Service("Combo", "Corte y barba", new BigDecimal("22.00"), 45, "star"));
+            serviceCatalog.load();
+        }
+        if (clientRepository.count() < CLIENTS) {
+            List<Client> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(new Client("Cliente", "N" + i, "cliente" + i + "@test.com", "+54911" + i));
+            }
+            clientRepository.saveAll(clients);
+        }
+        clientIds.clear();
+        clientRepository.findAll().forEach(client -> clientIds.add(client.getId()));
+        for (Service service : serviceRepository.findAll()) {
+            if (service.getDurationMinutes() == 30) {
+                haircutId = service.getId();
+            } else {
+                comboId = service.getId();
+            }
+        }
+    }
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < DATES; i++) {
+            dates.add(nextWorkingDay());
+        }
+        Map<BookingOutcome, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        List<Throwable> unexpected = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            // Cada horario de cada fecha recibe ATTEMPTS pedidos seguidos; los horarios se
+            // intercalan entre fechas para que los hilos no esperen todos el mismo lock
+            int slot = i / ATTEMPTS;
+            LocalDate date = dates.get(slot % DATES);
+            LocalTime time = SLOTS.get(slot / DATES);
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Long clientId = clientIds.get(random.nextInt(clientIds.size()));
+                // El combo de 45 minutos pisa el horario siguiente: también se prueban solapamientos parciales
+                Long serviceId = random.nextInt(4) == 0 ? comboId : haircutId;
+                start.await();
+                try {
+                    appointmentService.createAppointment(clientId, List.of(serviceId), date, time, null);
+                    outcomes.computeIfAbsent(BookingOutcome.CONFIRMED, k -> new AtomicInteger()).incrementAndGet();
+                } catch (BookingRejectedException e) {
+                    outcomes.computeIfAbsent(e.getOutcome(), k -> new AtomicInteger()).incrementAndGet();
+                } catch (RuntimeException e) {
+                    synchronized (unexpected) {
+                        unexpected.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+
+        log.info("{} reservas concurrentes en {} s ({}/s): {}", REQUESTS, String.format("%.2f", seconds),
+            Math.round(REQUESTS / seconds), outcomes);
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+
+        int confirmedCount = 0;
+        for (LocalDate date : dates) {
+            List<AppointmentDto> confirmed = appointmentService.getAppointmentsByDate(date).stream()
+                .filter(appointment -> appointment.getStatus() == AppointmentStatus.CONFIRMED)
+                .toList();
+            confirmedCount += confirmed.size();
+            for (int i = 0; i < confirmed.size(); i++) {
+                for (int j = i + 1; j < confirmed.size(); j++) {
+                    assertTrue(!overlap(confirmed.get(i), confirmed.get(j)),
+                        "Reservas superpuestas: " + confirmed.get(i).getId() + " y " + confirmed.get(j).getId());
+                }
+            }
+            assertClaimsMatch(date, confirmed);
+        }
+        assertEquals(outcomes.get(BookingOutcome.CONFIRMED).get(), confirmedCount);
+        // Todos los horarios recibieron pedidos y una reserva tapa como mucho dos de ellos
+        assertTrue(confirmedCount >= DATES * SLOTS.size() / 2,
+            "Solo se confirmaron " + confirmedCount + " reservas en " + DATES * SLOTS.size() + " horarios");
+    }
+
+    @Test
+    void concurrentCancellationsApplyOnce() throws Exception {
+        LocalDate date = nextWorkingDay();
+        AppointmentDto booked = appointmentService.createAppointment(clientIds.get(0), List.of(haircutId),
+            date, SLOTS.get(0), null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            boolean cancel = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (cancel) {
+                    appointmentService.cancelAppointment(booked.getId());
+                } else {
+                    appointmentService.completeAppointment(booked.getId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Integer cancelledNotices = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_messages WHERE appointment_id = ? AND type = 'BOOKING_CANCELLED'",
+            Integer.class, booked.getId());
+        assertTrue(cancelledNotices <= 1, "La cancelación se encoló " + cancelledNotices + " veces");
+
+        // El horario quedó libre una sola vez: una reserva nueva lo ocupa y otra choca con ella
+        appointmentService.createAppointment(clientIds.get(1), List.of(haircutId), date, SLOTS.get(0), null);
+        BookingRejectedException conflict = assertThrows(BookingRejectedException.class,
+            () -> appointmentService.createAppointment(clientIds.get(2), List.of(haircutId), date, SLOTS.get(0), null));
+        assertEquals(BookingOutcome.SLOT_CONFLICT, conflict.getOutcome());
+        assertEquals(1, appointmentService.getAppointmentsByDate(date).stream()
+            .filter(appointment -> appointment.getStatus() == AppointmentStatus.CONFIRMED).count());
+    }
+
+    @Test
+    void offGridTimeIsRejected() {
+        LocalDate date = nextWorkingDay();
+        // 10:00-10:32 y 10:33 compartirían la unidad de 10:30 a 10:35
+        BookingRejectedException offGrid = assertThrows(BookingRejectedException.class,
+            () -> appointmentService.createAppointment(clientIds.get(0), List.of(haircutId), date, LocalTime.of(10, 33), null));
+        assertEquals(BookingOutcome.OFF_GRID_TIME, offGrid.getOutcome());
+        assertTrue(!appointmentService.isTimeSlotAvailable(date, LocalTime.of(10, 33), 30));
+        assertEquals(LocalTime.of(10, 35), appointmentService.createAppointment(clientIds.get(0), List.of(haircutId),
+            date, LocalTime.of(10, 35), null).getAppointmentTime());
+    }
+
+    /**
+     * Los claims de la fecha son exactamente las unidades de las reservas confirmadas,
+     * sin unidades repetidas
+     */
+    private void assertClaimsMatch(LocalDate date, List<AppointmentDto> confirmed) {
+        int unit = barberiaProperties.getBooking().getClaimUnitMinutes();
+        int expected = 0;
+        for (AppointmentDto appointment : confirmed) {
+            expected += (appointment.getTotalDurationMinutes() + unit - 1) / unit;
+        }
+        Integer claims = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM slot_claims WHERE slot_date = ?", Integer.class, date);
+        assertEquals(expected, claims, "Claims de " + date + " que no corresponden a las reservas confirmadas");
+        List<Integer> repeated = jdbcTemplate.queryForList(
+            "SELECT slot_unit FROM slot_claims WHERE slot_date = ? GROUP BY slot_unit HAVING COUNT(*) > 1",
+            Integer.class, date);
+        assertTrue(repeated.isEmpty(), () -> "Unidades reclamadas dos veces el " + date + ": " + repeated);
+        Integer foreign = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM slot_claims sc JOIN appointments a ON a.id = sc.appointment_id " +
+            "WHERE sc.slot_date = ? AND a.status <> 'CONFIRMED'", Integer.class, date);
+        assertEquals(0, foreign, "Claims de reservas no confirmadas el " + date);
+    }
+
+    private static boolean overlap(AppointmentDto a, AppointmentDto b) {
+        int startA = SlotOccupancyIndex.toMinute(a.getAppointmentTime());
+        int startB = SlotOccupancyIndex.toMinute(b.getAppointmentTime());
+        return startA < startB + b.getTotalDurationMinutes() && startB < startA + a.getTotalDurationMinutes();
+    }
+
+    private static List<LocalTime> slots(LocalTime first, LocalTime last) {
+        List<LocalTime> slots = new ArrayList<>();
+        for (LocalTime time = first; !time.isAfter(last); time = time.plusMinutes(30)) {
+            slots.add(time);
+        }
+        return List.copyOf(slots);
+    }
+
+    private static LocalDate nextWorkingDay() {
+        LocalDate date = LocalDate.now().plusDays(DAYS_AHEAD.getAndIncrement());
+        while (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = LocalDate.now().plusDays(DAYS_AHEAD.getAndIncrement());
+        }
+        return date;
+    }
+}
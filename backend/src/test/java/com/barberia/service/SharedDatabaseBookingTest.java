@@ -0,0 +1,82 @@
+package com.barberia.service;
+
+import com.barberia.BarberiaApplication;
+import com.barberia.model.Client;
+import com.barberia.model.Service;
+import com.barberia.repository.ClientRepository;
+import com.barberia.repository.ServiceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dos instancias con el perfil shared sobre la misma base H2 en archivo: cada una tiene
+ * su propio índice de ocupación, y la restricción única de slot_claims es la que impide
+ * que ambas confirmen el mismo horario.
+ */
+class SharedDatabaseBookingTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void sameSlotFromTwoInstancesConflicts() {
+        String url = "jdbc:h2:file:" + dataDir.resolve("barberia").toAbsolutePath() + ";AUTO_SERVER=TRUE";
+        LocalDate date = LocalDate.now().plusDays(3);
+        if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.plusDays(1);
+        }
+        LocalTime time = LocalTime.of(10, 0);
+
+        try (ConfigurableApplicationContext first = start(url)) {
+            Long serviceId = first.getBean(ServiceRepository.class)
+                .save(new Service("Corte", "Corte de pelo", new BigDecimal("15.00"), 30, "scissors")).getId();
+            ClientRepository clients = first.getBean(ClientRepository.class);
+            Long firstClient = clients.save(new Client("Juan", "Perez", "juan@test.com", "+5491111")).getId();
+            Long secondClient = clients.save(new Client("Ana", "Gomez", "ana@test.com", "+5491112")).getId();
+            first.getBean(ServiceCatalog.class).load();
+
+            try (ConfigurableApplicationContext second = start(url)) {
+                AppointmentService firstService = first.getBean(AppointmentService.class);
+                AppointmentService secondService = second.getBean(AppointmentService.class);
+
+                // La segunda instancia carga el día antes de la reserva de la primera y no la ve
+                assertTrue(secondService.isTimeSlotAvailable(date, time, 30));
+                assertNotNull(firstService.createAppointment(firstClient, List.of(serviceId), date, time, null));
+                assertTrue(secondService.isTimeSlotAvailable(date, time, 30));
+
+                LocalDate bookingDate = date;
+                BookingRejectedException conflict = assertThrows(BookingRejectedException.class,
+                    () -> secondService.createAppointment(secondClient, List.of(serviceId), bookingDate, time, null));
+                assertEquals(BookingOutcome.SLOT_CONFLICT, conflict.getOutcome());
+                assertEquals(1, secondService.getAppointmentsByDate(date).size());
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String url) {
+        return new SpringApplicationBuilder(BarberiaApplication.class)
+            .profiles("shared")
+            // Como argumentos, para que tengan prioridad sobre application.yml
+            .run("--spring.datasource.url=" + url,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.barberia=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                // Un día cargado no se vuelve a leer durante el test
+                "--barberia.booking.occupancy-max-age=10m");
+    }
+}
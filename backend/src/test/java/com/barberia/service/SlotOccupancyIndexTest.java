@@ -0,0 +1,142 @@
+package com.barberia.service;
+
+import com.barberia.dto.AppointmentDto;
+import com.barberia.model.Client;
+import com.barberia.model.Service;
+import com.barberia.repository.ClientRepository;
+import com.barberia.repository.ServiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Carga de días del índice de ocupación concurrente con cancelaciones, y días fuera de
+ * la ventana compartida usados dentro de una transacción.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.barberia=INFO",
+    "logging.level.org.springframework.security=INFO"
+})
+class SlotOccupancyIndexTest {
+
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private ServiceCatalog serviceCatalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long serviceId;
+
+    @BeforeEach
+    void setUp() {
+        if (serviceRepository.count() == 0) {
+            // El mismo catálogo que BookingConcurrencyTest, que comparte el contexto y la base
+            serviceRepository.save(new Service("Corte", "Corte de pelo", new BigDecimal("15.00"), 30, "scissors"));
+            serviceRepository.save(new Service("Combo", "Corte y barba", new BigDecimal("22.00"), 45, "star"));
+            serviceCatalog.load();
+        }
+        serviceId = serviceRepository.findAll().stream()
+            .filter(service -> service.getDurationMinutes() == 30)
+            .findFirst().orElseThrow().getId();
+    }
+
+    @Test
+    void coldLoadDuringCancelIsDiscardedOnCommit() throws Exception {
+        // Dentro de la ventana y lejos de las fechas que usa BookingConcurrencyTest
+        LocalDate date = workingDay(LocalDate.now().plusDays(300));
+        AppointmentDto booked = appointmentService.createAppointment(newClient(), List.of(serviceId), date, TEN, null);
+        slotOccupancyIndex.invalidate(date);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> cancel = executor.submit(() -> transaction.executeWithoutResult(tx -> {
+                appointmentService.cancelAppointment(booked.getId());
+                cancelled.countDown();
+                try {
+                    loaded.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+
+            // La cancelación todavía no hizo commit: la carga en frío lee la reserva confirmada
+            assertFalse(slotOccupancyIndex.isFree(date, TEN, 30));
+            loaded.countDown();
+            cancel.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(slotOccupancyIndex.isFree(date, TEN, 30), "El índice conservó una carga anterior al commit");
+    }
+
+    @Test
+    void dayOutsideWindowStaysLoadedForTheTransaction() {
+        LocalDate date = workingDay(LocalDate.now().plusDays(600));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(tx -> {
+            slotOccupancyIndex.loadRange(date, date.plusDays(6));
+            slotOccupancyIndex.occupy(date, TEN, 30);
+            assertFalse(slotOccupancyIndex.isFree(date, LocalTime.of(10, 15), 30));
+            tx.setRollbackOnly();
+        });
+        assertTrue(slotOccupancyIndex.isFree(date, TEN, 30));
+    }
+
+    @Test
+    void bookingOnColdDayIsCountedOnce() {
+        LocalDate date = workingDay(LocalDate.now().plusDays(302));
+        slotOccupancyIndex.invalidate(date);
+        // El día se carga antes del insert y la reserva se agrega una sola vez
+        AppointmentDto booked = appointmentService.createAppointment(newClient(), List.of(serviceId), date, TEN, null);
+        assertFalse(slotOccupancyIndex.isFree(date, TEN, 30));
+        appointmentService.cancelAppointment(booked.getId());
+        assertTrue(slotOccupancyIndex.isFree(date, TEN, 30));
+    }
+
+    private Long newClient() {
+        String unique = UUID.randomUUID().toString();
+        return clientRepository.save(new Client("Cliente", unique, unique + "@test.com", "+54911")).getId();
+    }
+
+    private static LocalDate workingDay(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+    }
+}